@@ -0,0 +1,96 @@
+package thecount;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import thecount.task.Deadline;
+import thecount.task.Event;
+import thecount.task.Task;
+import thecount.task.TaskList;
+import thecount.task.ToDo;
+
+/**
+ * Generates the task lists and data directories the benchmarks run against.
+ * The same count always yields the same tasks, so results from different runs can be compared.
+ */
+public final class BenchmarkData {
+    private static final String[] WORDS = {
+        "read", "book", "return", "library", "buy", "milk", "call", "mum", "submit", "report",
+        "project", "meeting", "gym", "laundry", "plan", "trip", "pay", "bills", "water", "plants"
+    };
+    private static final String[] TAGS = {"work", "home", "school", "errand"};
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates a list of mixed to-dos, deadlines and events, with every tenth task done
+     * and every fourth one tagged.
+     *
+     * @param count The number of tasks to generate.
+     * @return The generated tasks.
+     */
+    public static TaskList generateTasks(int count) {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < count; i++) {
+            tasks.add(generateTask(i));
+        }
+        return tasks;
+    }
+
+    private static Task generateTask(int i) {
+        String description = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+        LocalDate date = FIRST_DATE.plusDays(i % 3650);
+        Task task;
+        switch (i % 3) {
+        case 0:
+            task = new ToDo(description);
+            break;
+        case 1:
+            task = new Deadline(description, date);
+            break;
+        default:
+            task = new Event(description, date + " 0900", date + " 1000");
+            break;
+        }
+        if (i % 10 == 0) {
+            task.markAsDone();
+        }
+        if (i % 4 == 0) {
+            task.tag(TAGS[(i / 4) % TAGS.length]);
+        }
+        return task;
+    }
+
+    /**
+     * Creates an empty directory to hold a benchmark's data file.
+     *
+     * @return The new directory.
+     */
+    public static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("thecount-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes a directory created by {@link #createDirectory()} and everything in it.
+     *
+     * @param directory The directory to delete.
+     */
+    public static void deleteDirectory(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
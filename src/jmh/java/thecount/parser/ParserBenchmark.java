@@ -0,0 +1,96 @@
+package thecount.parser;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import thecount.BenchmarkData;
+import thecount.storage.GroupCommitWriter;
+import thecount.storage.Storage;
+import thecount.storage.StorageConfig;
+import thecount.task.TaskList;
+
+/**
+ * Measures how long {@link Parser#parse(String)} takes for each kind of command on a list of 10,000 tasks.
+ * Saving is deferred so the numbers cover parsing and the task list, not the disk.
+ * The list is regenerated every iteration, since commands such as {@code todo} grow it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParserBenchmark {
+    private static final int TASK_COUNT = 10_000;
+
+    private Path directory;
+    private Storage storage;
+    private Parser parser;
+
+    /**
+     * Creates an empty data directory for the benchmark.
+     */
+    @Setup(Level.Trial)
+    public void createDirectory() {
+        directory = BenchmarkData.createDirectory();
+    }
+
+    /**
+     * Generates a fresh list of tasks and a parser over it.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        TaskList tasks = BenchmarkData.generateTasks(TASK_COUNT);
+        StorageConfig config = new StorageConfig()
+                .withDirectory(directory.toString())
+                .withCommitWindow(GroupCommitWriter.DEFERRED);
+        storage = new Storage(tasks, config);
+        parser = new Parser(tasks, storage, false);
+    }
+
+    /**
+     * Closes storage, saving the iteration's changes outside the measured time.
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        storage.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() {
+        BenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public String parse(Command command) {
+        return parser.parse(command.line);
+    }
+
+    /**
+     * Adds a task and deletes it again, keeping the list the same length across invocations.
+     */
+    @Benchmark
+    public String addAndDelete() {
+        parser.parse("todo read book");
+        return parser.parse("delete " + (TASK_COUNT + 1));
+    }
+
+    /**
+     * Holds the command to parse, one of each kind.
+     */
+    @State(Scope.Benchmark)
+    public static class Command {
+        @Param({"list", "list #work", "find book", "find --substring ook", "due before 2025-01-01",
+            "busy 2024-06-01", "mark 2", "unmark 2", "mark 1-500", "tag 2 urgent", "todo read book",
+            "deadline submit report /by 2025-03-01", "event meeting /from 2025-03-01 1400 /to 1500", "blah"})
+        private String line;
+    }
+}
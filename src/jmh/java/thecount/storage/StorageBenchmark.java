@@ -0,0 +1,84 @@
+package thecount.storage;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import thecount.BenchmarkData;
+import thecount.task.TaskList;
+
+/**
+ * Measures loading and writing generated data files in each format.
+ * Lazy loading only maps the file, so it is measured separately from a full load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+    @Param({"10000", "1000000"})
+    private int taskCount;
+
+    @Param({"TEXT", "BINARY"})
+    private StorageFormat format;
+
+    private Path directory;
+    private StorageConfig config;
+    private TaskList tasks;
+    private Storage storage;
+
+    /**
+     * Writes a data file of generated tasks in the format under test.
+     */
+    @Setup
+    public void setUp() {
+        directory = BenchmarkData.createDirectory();
+        config = new StorageConfig()
+                .withDirectory(directory.toString())
+                .withFormat(format)
+                .withCommitWindow(GroupCommitWriter.DEFERRED);
+        tasks = BenchmarkData.generateTasks(taskCount);
+        storage = new Storage(tasks, config);
+        storage.write(tasks);
+    }
+
+    /**
+     * Closes storage and deletes the data file.
+     */
+    @TearDown
+    public void tearDown() {
+        storage.close();
+        BenchmarkData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public TaskList load() {
+        TaskList loaded = new TaskList();
+        new Storage(loaded, config).close();
+        return loaded;
+    }
+
+    /**
+     * Loads the data file lazily, which for a binary file decodes only the last task.
+     * Text files are always loaded in full.
+     */
+    @Benchmark
+    public int loadLazily() {
+        TaskList loaded = new TaskList();
+        new Storage(loaded, config.withLazyLoading(true)).close();
+        return loaded.length();
+    }
+
+    @Benchmark
+    public void write() {
+        storage.write(tasks);
+    }
+}
@@ -0,0 +1,65 @@
+package thecount.task;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import thecount.BenchmarkData;
+
+/**
+ * Measures {@link TaskList#findTask(String)} on lists of increasing length.
+ * The keyword index is built during setup, so the numbers cover lookups rather than indexing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    private TaskList tasks;
+    private String rareQuery;
+
+    /**
+     * Generates the task list and builds its keyword index.
+     */
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkData.generateTasks(taskCount);
+        tasks.findTask("book");
+        rareQuery = tasks.getTasks().get(taskCount / 2).getDescription();
+    }
+
+    /**
+     * Finds the words of one task's description, which together match only a handful of tasks.
+     */
+    @Benchmark
+    public String findRareWords() {
+        return tasks.findTask(rareQuery);
+    }
+
+    /**
+     * Finds a word that appears in a tenth of the descriptions, so the reply lists many tasks.
+     */
+    @Benchmark
+    public String findCommonWord() {
+        return tasks.findTask("book");
+    }
+
+    @Benchmark
+    public String findMissingWord() {
+        return tasks.findTask("zebra");
+    }
+
+    @Benchmark
+    public String findSubstring() {
+        return tasks.findTaskBySubstring("ook");
+    }
+}
@@ -0,0 +1,60 @@
+package thecount.ui;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import thecount.BenchmarkData;
+import thecount.task.Task;
+
+/**
+ * Measures formatting a list of tasks for display and for the data file.
+ * A single page holds 100 tasks, so the longer lists show the cost of the data file format and of {@code find}
+ * replies, which are not paged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrintListBenchmark {
+    @Param({"100", "10000", "100000"})
+    private int taskCount;
+
+    private PrintList printList;
+    private StringWriter writer;
+
+    /**
+     * Generates the tasks to format.
+     */
+    @Setup
+    public void setUp() {
+        List<Task> tasks = BenchmarkData.generateTasks(taskCount).getTasks();
+        printList = new PrintList(tasks);
+        writer = new StringWriter();
+    }
+
+    @Benchmark
+    public String displayMessage() {
+        return printList.displayMessage();
+    }
+
+    /**
+     * Writes the list in the data file format into a writer reused across calls,
+     * so only the formatting is measured.
+     */
+    @Benchmark
+    public int writeListTo() throws IOException {
+        writer.getBuffer().setLength(0);
+        printList.writeListTo(writer);
+        return writer.getBuffer().length();
+    }
+}
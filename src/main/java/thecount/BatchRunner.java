@@ -0,0 +1,112 @@
+package thecount;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import thecount.parser.Parser;
+import thecount.storage.GroupCommitWriter;
+import thecount.storage.StorageConfig;
+import thecount.storage.Workspaces;
+
+/**
+ * Runs TheCount without a display, feeding each line of a command file or standard input through the parser
+ * and writing the replies to standard output.
+ * Changes are only saved every so many changing commands, if asked to, and once all commands have run.
+ * Usage: {@code java -jar thecount.jar --batch [commands.txt] [--save-every N]}.
+ */
+public class BatchRunner {
+    /** The option that starts TheCount in batch mode. */
+    public static final String BATCH_OPTION = "--batch";
+
+    private static final String SAVE_EVERY_OPTION = "--save-every";
+    private static final String STANDARD_INPUT = "-";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Workspaces workspaces;
+    private final Parser parser;
+    private final int saveInterval;
+
+    /**
+     * Constructs a BatchRunner, loading tasks from storage.
+     *
+     * @param config The storage settings, whose commit window is replaced so that saves are deferred.
+     * @param saveInterval The number of changing commands after which changes are saved, or 0 to only save at the end.
+     */
+    public BatchRunner(StorageConfig config, int saveInterval) {
+        assert saveInterval >= 0 : "Save interval must not be negative";
+        this.workspaces = new Workspaces(config.withCommitWindow(GroupCommitWriter.DEFERRED));
+        this.parser = new Parser(this.workspaces, false);
+        this.saveInterval = saveInterval;
+    }
+
+    /**
+     * Runs every command until the input ends or says goodbye, then saves and closes every loaded list.
+     *
+     * @param input The commands, one per line.
+     * @param output Where to write the replies.
+     * @return The number of commands run.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    public int run(BufferedReader input, Writer output) throws IOException {
+        int count = 0;
+        long savedChangeCount = 0;
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                output.write(parser.parse(line));
+                count++;
+                if (parser.isGoodbye(line)) {
+                    break;
+                }
+                if (saveInterval > 0 && parser.getChangeCount() - savedChangeCount >= saveInterval) {
+                    workspaces.flush();
+                    savedChangeCount = parser.getChangeCount();
+                }
+            }
+        } finally {
+            output.flush();
+            workspaces.close();
+        }
+        return count;
+    }
+
+    /**
+     * Starts batch mode from the command-line arguments.
+     *
+     * @param args The command-line arguments, starting with {@code --batch}.
+     */
+    public static void main(String[] args) {
+        String path = STANDARD_INPUT;
+        int saveInterval = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals(SAVE_EVERY_OPTION)) {
+                    saveInterval = Integer.parseInt(args[++i]);
+                } else if (!args[i].equals(BATCH_OPTION)) {
+                    path = args[i];
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Usage: " + BATCH_OPTION + " [commands.txt] [" + SAVE_EVERY_OPTION + " N]");
+            System.exit(1);
+        }
+
+        BatchRunner runner = new BatchRunner(StorageConfig.fromSystemProperties(), Math.max(saveInterval, 0));
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (BufferedReader input = path.equals(STANDARD_INPUT)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BUFFER_SIZE)
+                : Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            runner.run(input, output);
+        } catch (IOException e) {
+            System.err.println(e);
+            System.exit(1);
+        }
+    }
+}
@@ -21,12 +21,21 @@ import javafx.scene.layout.HBox;
  * containing text from the speaker.
  */
 public class DialogBox extends HBox {
+    // The size the avatars are shown at, as set on the image view in DialogBox.fxml
+    private static final double AVATAR_SIZE = 99.0;
+
     @FXML
     private Label dialog;
     @FXML
     private ImageView displayPicture;
 
-    private DialogBox(String text, Image img) {
+    private boolean isFlipped;
+
+    /**
+     * Constructs an empty dialog box with the image on the right, to be filled by {@link #setDialog}.
+     * A dialog box can be refilled, so a list cell loads the FXML once and reuses it for every message it shows.
+     */
+    public DialogBox() {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
             fxmlLoader.setController(this);
@@ -39,28 +48,59 @@ public class DialogBox extends HBox {
         dialog.setPadding(new Insets(0, 10, 0, 10));
         displayPicture.setStyle("-fx-border-radius: 100%; -fx-background-radius: 100%; "
                         + "-fx-background-color: transparent;");
+    }
 
+    /**
+     * Shows a message in the dialog box.
+     *
+     * @param text The text of the message.
+     * @param img The image of the speaker.
+     * @param isFlipped Specifies if the image goes on the left, as for TheCount's replies.
+     */
+    public void setDialog(String text, Image img, boolean isFlipped) {
         dialog.setText(text);
         displayPicture.setImage(img);
+        if (this.isFlipped != isFlipped) {
+            flip();
+        }
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Flips the dialog box such that the ImageView is on the other side of the text.
      */
     private void flip() {
         ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
         Collections.reverse(tmp);
         getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+        this.isFlipped = !this.isFlipped;
+        setAlignment(this.isFlipped ? Pos.TOP_LEFT : Pos.TOP_RIGHT);
+    }
+
+    /**
+     * Gets the user's avatar, decoded once at the size it is shown at and shared by every dialog box.
+     */
+    public static Image getUserAvatar() {
+        return Avatars.USER;
     }
 
-    public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+    /**
+     * Gets TheCount's avatar, decoded once at the size it is shown at and shared by every dialog box.
+     */
+    public static Image getCountAvatar() {
+        return Avatars.COUNT;
     }
 
-    public static DialogBox getCountDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        return db;
+    /**
+     * Holds the avatars, which are only decoded when first used, and then in the background,
+     * so the window can be shown before they are ready.
+     */
+    private static class Avatars {
+        private static final Image USER = loadAvatar("/images/elmo.png");
+        private static final Image COUNT = loadAvatar("/images/thecount.png");
+
+        private static Image loadAvatar(String path) {
+            return new Image(DialogBox.class.getResource(path).toExternalForm(), AVATAR_SIZE, AVATAR_SIZE,
+                    true, true, true);
+        }
     }
 }
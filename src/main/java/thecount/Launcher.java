@@ -1,12 +1,27 @@
 package thecount;
 
 import javafx.application.Application;
+import thecount.server.ApiServer;
 
 /**
  * A launcher class to workaround classpath issues.
  */
 public class Launcher {
+    /**
+     * Starts the GUI, runs commands without a display if the arguments start with {@code --batch},
+     * or serves them over HTTP if the arguments start with {@code --serve}.
+     *
+     * @param args Command-line arguments.
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(BatchRunner.BATCH_OPTION)) {
+            BatchRunner.main(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(ApiServer.SERVE_OPTION)) {
+            ApiServer.main(args);
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
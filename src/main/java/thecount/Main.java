@@ -1,20 +1,24 @@
 package thecount;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import thecount.metrics.Metrics;
 
 /**
  * A GUI for Duke using FXML.
+ * The window is shown first, and TheCount loads its tasks in the background meanwhile.
  */
 public class Main extends Application {
 
-    private TheCount theCount = new TheCount();
-
     @Override
     public void start(Stage stage) {
         try {
@@ -22,10 +26,45 @@ public class Main extends Application {
             AnchorPane ap = fxmlLoader.load();
             Scene scene = new Scene(ap);
             stage.setScene(scene);
-            fxmlLoader.<MainWindow>getController().setTheCount(theCount);
+            MainWindow mainWindow = fxmlLoader.getController();
+            reportFirstFrame(scene);
             stage.show();
+            loadTheCount(mainWindow);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Records in the metrics how long after the JVM started the window was first laid out, ready to be drawn.
+     */
+    private static void reportFirstFrame(Scene scene) {
+        Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                Metrics.get().recordFirstFrame(ManagementFactory.getRuntimeMXBean().getUptime());
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+    }
+
+    /**
+     * Loads TheCount and its tasks on a background thread, handing it to the window once loaded.
+     */
+    private static void loadTheCount(MainWindow mainWindow) {
+        Executor loader = runnable -> {
+            Thread thread = new Thread(runnable, "task-loader");
+            thread.setDaemon(true);
+            thread.start();
+        };
+        CompletableFuture.supplyAsync(TheCount::new, loader).whenComplete((theCount, e) -> {
+            if (e != null) {
+                System.err.println(e);
+                Platform.runLater(mainWindow::showLoadFailure);
+                return;
+            }
+            Platform.runLater(() -> mainWindow.setTheCount(theCount));
+        });
+    }
 }
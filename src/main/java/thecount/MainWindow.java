@@ -1,64 +1,156 @@
 package thecount;
 
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import thecount.ui.ChatHistory;
 import thecount.ui.Greeting;
 
 /**
  * Controller for MainWindow. Provides the layout for the other controls.
+ * The conversation is shown in a list view, which only builds dialog boxes for the messages on screen
+ * and reuses them as the list scrolls. Only the most recent messages are kept in memory.
+ * The window can be shown before TheCount has loaded its tasks; until then it shows a progress indicator
+ * and does not take input.
  */
 public class MainWindow extends AnchorPane {
+    private static final int RETAINED_MESSAGES = 500;
+    // Leaves room for the list's scroll bar, so the text of each dialog box wraps instead of scrolling sideways
+    private static final double CELL_INSET = 20;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatHistory.Entry> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator loadingIndicator;
 
     private TheCount theCount;
+    private final Messages messages = new Messages(new ChatHistory(RETAINED_MESSAGES));
 
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/elmo.png"));
-    private Image theCountImage = new Image(this.getClass().getResourceAsStream("/images/thecount.png"));
 
     /**
      * Initializes the controller after its root element has been completely processed.
-     * It binds the vertical value property of the scroll pane to the height property of the dialog container.
-     * Then, it retrieves a greeting message and adds a dialog box
-     * containing the message and an image to the dialog container.
+     * It shows the conversation in the dialog list, then adds a greeting message from TheCount to it.
+     * Input stays disabled until TheCount is set.
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
-        String response = new Greeting().displayMessage();
-        dialogContainer.getChildren().addAll(
-                DialogBox.getCountDialog(response, theCountImage)
-        );
+        dialogList.setItems(messages);
+        dialogList.setCellFactory(list -> new DialogCell());
+        userInput.setDisable(true);
+        sendButton.setDisable(true);
+        addMessages(new ChatHistory.Entry(new Greeting().displayMessage(), false));
     }
 
-
+    /**
+     * Sets TheCount once it has loaded its tasks, hiding the progress indicator and taking input from then on.
+     *
+     * @param tc TheCount, with its tasks loaded.
+     */
     public void setTheCount(TheCount tc) {
         theCount = tc;
+        loadingIndicator.setVisible(false);
+        userInput.setDisable(false);
+        sendButton.setDisable(false);
+        userInput.requestFocus();
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Tells the user that the tasks could not be loaded, leaving input disabled.
+     */
+    public void showLoadFailure() {
+        loadingIndicator.setVisible(false);
+        addMessages(new ChatHistory.Entry("I could not load your tasks. Please restart me!", false));
+    }
+
+    /**
+     * Adds a message echoing user input to the conversation and clears the user input straight away,
+     * then adds TheCount's reply once the command has run on TheCount's command thread.
+     * Replies arrive in the order the commands were sent, so the user can keep typing meanwhile.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = theCount.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getCountDialog(response, theCountImage)
-        );
+        addMessages(new ChatHistory.Entry(input, true));
         userInput.clear();
+        theCount.getResponseAsync(input).whenComplete((response, e) -> {
+            if (e != null) {
+                System.err.println(e);
+            }
+            String reply = e == null ? response : "Something went wrong. I can't count that!";
+            Platform.runLater(() -> addMessages(new ChatHistory.Entry(reply, false)));
+        });
+    }
+
+    private void addMessages(ChatHistory.Entry... entries) {
+        messages.addAll(entries);
+        dialogList.scrollTo(messages.size() - 1);
+    }
+
+    /**
+     * Presents the messages of a chat history to the list view, telling it when messages are added.
+     */
+    private static class Messages extends ObservableListBase<ChatHistory.Entry> {
+        private final ChatHistory history;
+
+        private Messages(ChatHistory history) {
+            this.history = history;
+        }
+
+        @Override
+        public ChatHistory.Entry get(int index) {
+            return history.get(index);
+        }
+
+        @Override
+        public int size() {
+            return history.size();
+        }
+
+        @Override
+        public boolean addAll(ChatHistory.Entry... entries) {
+            int from = history.size();
+            for (ChatHistory.Entry entry : entries) {
+                history.add(entry);
+            }
+            beginChange();
+            nextAdd(from, history.size());
+            endChange();
+            return entries.length > 0;
+        }
+    }
+
+    /**
+     * Shows one message at a time in a dialog box, which is reused for whichever message the cell shows next.
+     */
+    private class DialogCell extends ListCell<ChatHistory.Entry> {
+        private final DialogBox dialogBox = new DialogBox();
+
+        private DialogCell() {
+            dialogBox.prefWidthProperty().bind(dialogList.widthProperty().subtract(CELL_INSET));
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected void updateItem(ChatHistory.Entry entry, boolean isEmpty) {
+            super.updateItem(entry, isEmpty);
+            if (isEmpty || entry == null) {
+                setGraphic(null);
+                return;
+            }
+            Image avatar = entry.isFromUser() ? DialogBox.getUserAvatar() : DialogBox.getCountAvatar();
+            dialogBox.setDialog(entry.getText(), avatar, !entry.isFromUser());
+            setGraphic(dialogBox);
+        }
     }
 }
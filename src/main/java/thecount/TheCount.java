@@ -1,36 +1,58 @@
 package thecount;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import thecount.parser.Parser;
-import thecount.storage.Storage;
-import thecount.task.TaskList;
+import thecount.server.ApiServer;
+import thecount.storage.StorageConfig;
+import thecount.storage.Workspaces;
 import thecount.ui.Ui;
 
 /**
  * Represents TheCount application.
  * Initialises and runs the application.
+ * Commands can be run on a command thread of their own, so a slow command never holds up the window.
  */
 public class TheCount {
 
-    private Storage loader;
-    private TaskList tasks;
+    private Workspaces workspaces;
     private Parser parser;
     private Ui ui;
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "command-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Constructs a new instance of TheCount.
-     * Initialises the task list, storage, and user interface.
+     * Initialises the task lists, loading the first one, and the user interface.
+     * Pending changes to every loaded list are flushed to storage when the JVM shuts down.
      */
     public TheCount() {
-        this.tasks = new TaskList();
-        this.loader = new Storage(this.tasks);
-        this.parser = new Parser(tasks, loader);
-        this.ui = new Ui(this.tasks, this.loader);
+        this.workspaces = new Workspaces(StorageConfig.fromSystemProperties());
+        this.parser = new Parser(this.workspaces, true);
+        this.ui = new Ui();
+        Runtime.getRuntime().addShutdownHook(new Thread(this.workspaces::flush, "storage-flush"));
     }
 
     public String getResponse(String input) {
         return parser.parse(input);
     }
 
+    /**
+     * Runs a command on the command thread, after every command submitted before it has run.
+     * Replies therefore complete in the order their commands were submitted.
+     *
+     * @param input The user input.
+     * @return The reply, completed once the command has run.
+     */
+    public CompletableFuture<String> getResponseAsync(String input) {
+        return CompletableFuture.supplyAsync(() -> parser.parse(input), commandExecutor);
+    }
+
     /**
      * Runs the application.
      * Starts the user interface.
@@ -40,11 +62,20 @@ public class TheCount {
     }
 
     /**
-     * Starts the application.
+     * Starts the application, runs commands without a display if the arguments start with {@code --batch},
+     * or serves them over HTTP if the arguments start with {@code --serve}.
      *
      * @param args Command-line arguments.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(BatchRunner.BATCH_OPTION)) {
+            BatchRunner.main(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(ApiServer.SERVE_OPTION)) {
+            ApiServer.main(args);
+            return;
+        }
         new TheCount().run();
     }
 }
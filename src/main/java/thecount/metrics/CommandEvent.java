@@ -0,0 +1,40 @@
+package thecount.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event for one command, lasting from when it was parsed to when its reply was ready.
+ */
+@Name("thecount.Command")
+@Label("Command")
+@Category("TheCount")
+@Description("A command run by TheCount")
+final class CommandEvent extends Event {
+    @Label("Command")
+    private String command;
+
+    @Label("Changes Tasks")
+    private boolean isMutating;
+
+    @Label("Lock Wait")
+    @Description("How long the command waited for other changes to the task list")
+    @Timespan
+    private long lockWaitNanos;
+
+    @Label("Allocated")
+    @DataAmount
+    private long allocatedBytes;
+
+    void set(String command, boolean isMutating, long lockWaitNanos, long allocatedBytes) {
+        this.command = command;
+        this.isMutating = isMutating;
+        this.lockWaitNanos = lockWaitNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+}
@@ -0,0 +1,98 @@
+package thecount.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the runs of one command: how long they took, how long changes waited for the task list,
+ * and how much they allocated.
+ */
+public class CommandMetrics {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    /**
+     * Constructs a CommandMetrics with nothing counted.
+     *
+     * @param name The name of the command.
+     */
+    CommandMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts timing one run of the command on the current thread, which must also finish it.
+     *
+     * @param isMutating Specifies if the command can change the task list.
+     * @return The run, to be closed once the reply is ready.
+     */
+    public Run start(boolean isMutating) {
+        return new Run(isMutating);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    public LatencyHistogram getLockWait() {
+        return this.lockWait;
+    }
+
+    /**
+     * Gets the mean number of bytes allocated by a run, on JVMs that count allocations.
+     *
+     * @return The mean number of bytes, or 0 if the command has not run.
+     */
+    public long getMeanAllocatedBytes() {
+        long count = this.latency.getCount();
+        return count == 0 ? 0 : this.allocatedBytes.sum() / count;
+    }
+
+    /**
+     * Represents one run of the command, timed from when it started until it is closed.
+     * It also becomes a Flight Recorder event when a recording is taking place.
+     */
+    public class Run implements AutoCloseable {
+        private final boolean isMutating;
+        private final long startNanos = System.nanoTime();
+        private final long startAllocatedBytes = ThreadAllocation.currentThreadBytes();
+        private final CommandEvent event = new CommandEvent();
+        private long lockWaitNanos;
+
+        private Run(boolean isMutating) {
+            this.isMutating = isMutating;
+            this.event.begin();
+        }
+
+        /**
+         * Records that the command now holds the task list lock, having waited for it since it started.
+         */
+        public void lockAcquired() {
+            this.lockWaitNanos = System.nanoTime() - this.startNanos;
+            lockWait.record(this.lockWaitNanos);
+        }
+
+        /**
+         * Finishes the run, counting it.
+         */
+        @Override
+        public void close() {
+            latency.record(System.nanoTime() - this.startNanos);
+            long allocated = 0;
+            if (this.startAllocatedBytes >= 0) {
+                allocated = ThreadAllocation.currentThreadBytes() - this.startAllocatedBytes;
+                allocatedBytes.add(allocated);
+            }
+            this.event.end();
+            if (this.event.shouldCommit()) {
+                this.event.set(name, this.isMutating, this.lockWaitNanos, allocated);
+                this.event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package thecount.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how long something takes, in buckets that double in width, so recording never allocates or locks.
+ * Bucket {@code i} holds durations of at least {@code 2^(i-1)} and less than {@code 2^i} nanoseconds,
+ * so percentiles are reported as the upper bound of their bucket, at most twice the true value.
+ */
+public class LatencyHistogram {
+    private static final int BUCKET_COUNT = Long.SIZE + 1;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds; a negative one, from a clock going backwards, counts as 0.
+     */
+    public void record(long nanos) {
+        long duration = Math.max(nanos, 0);
+        this.buckets[Long.SIZE - Long.numberOfLeadingZeros(duration)].increment();
+        this.count.increment();
+        this.totalNanos.add(duration);
+        this.maxNanos.accumulate(duration);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Gets the mean duration.
+     *
+     * @return The mean in milliseconds, or 0 if nothing was recorded.
+     */
+    public double getMeanMillis() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : this.totalNanos.sum() / NANOS_PER_MILLI / recorded;
+    }
+
+    public double getMaxMillis() {
+        return this.maxNanos.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gets a duration at least as long as the given fraction of recorded durations.
+     * Recording may carry on meanwhile, so the result is only as exact as the buckets.
+     *
+     * @param fraction The fraction of durations, e.g. 0.99 for the 99th percentile.
+     * @return The upper bound of the bucket the percentile falls in, in milliseconds, no more than the maximum,
+     *     or 0 if nothing was recorded.
+     */
+    public double getPercentileMillis(double fraction) {
+        assert fraction > 0 && fraction <= 1 : "Percentile fraction must be in (0, 1]";
+        long[] counts = new long[BUCKET_COUNT];
+        long recorded = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets[i].sum();
+            recorded += counts[i];
+        }
+        long rank = (long) Math.ceil(fraction * recorded);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                double upperBound = i >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << i);
+                return Math.min(upperBound, this.maxNanos.get()) / NANOS_PER_MILLI;
+            }
+        }
+        return 0;
+    }
+}
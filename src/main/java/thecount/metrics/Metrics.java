@@ -0,0 +1,269 @@
+package thecount.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts where TheCount spends its time: running each command, writing files and loading tasks.
+ * Counting is cheap enough to leave on: it never locks and only allocates a little per command.
+ * There is one set of metrics per JVM, published over JMX as {@code thecount:type=Metrics};
+ * commands and storage writes are also Flight Recorder events while a recording is taking place.
+ */
+public final class Metrics implements MetricsBean {
+    private static final String OBJECT_NAME = "thecount:type=Metrics";
+    private static final Metrics INSTANCE = register(new Metrics());
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double BYTES_PER_KILOBYTE = 1024.0;
+
+    private final Map<String, CommandMetrics> commands = new ConcurrentHashMap<>();
+    private final LatencyHistogram writes = new LatencyHistogram();
+    private final LongAdder bytesWritten = new LongAdder();
+    private volatile long loadNanos = -1;
+    private volatile int loadedTaskCount;
+    private volatile long timeToFirstFrameMillis = -1;
+
+    private Metrics() {
+    }
+
+    private static Metrics register(Metrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            System.err.println(e);
+        }
+        return metrics;
+    }
+
+    /**
+     * Gets the metrics of this JVM.
+     *
+     * @return The metrics.
+     */
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the metrics of a command, counting nothing yet if it has not been asked for before.
+     * Callers should look these up once and keep them, rather than on every run.
+     *
+     * @param name The name of the command.
+     * @return The command's metrics.
+     */
+    public CommandMetrics forCommand(String name) {
+        return this.commands.computeIfAbsent(name, CommandMetrics::new);
+    }
+
+    /**
+     * Starts timing the write of one file.
+     *
+     * @param file The name of the file.
+     * @return The write, to be finished once the file is written.
+     */
+    public Write startWrite(String file) {
+        return new Write(file);
+    }
+
+    /**
+     * Starts timing loading the task list.
+     *
+     * @return The load, to be finished once the tasks are loaded.
+     */
+    public Load startLoad() {
+        return new Load();
+    }
+
+    /**
+     * Counts bytes appended to the journal, which are written in batches rather than one file at a time.
+     *
+     * @param bytes The number of bytes appended.
+     */
+    public void recordJournalAppend(long bytes) {
+        this.bytesWritten.add(bytes);
+    }
+
+    /**
+     * Records how long after the JVM started the first frame of the window was ready.
+     *
+     * @param uptimeMillis The JVM's uptime at the first frame, in milliseconds.
+     */
+    public void recordFirstFrame(long uptimeMillis) {
+        this.timeToFirstFrameMillis = uptimeMillis;
+    }
+
+    /**
+     * Describes the metrics for the user, listing the commands that have run, slowest on average first.
+     *
+     * @return A description of the metrics, one line per command.
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder("Ah-ah-ah! Here's where the time went:");
+        List<CommandMetrics> ran = this.commands.values().stream()
+                .filter(command -> command.getLatency().getCount() > 0)
+                .sorted((a, b) -> Double.compare(b.getLatency().getMeanMillis(), a.getLatency().getMeanMillis()))
+                .collect(Collectors.toList());
+        for (CommandMetrics command : ran) {
+            describeCommand(description.append('\n'), command);
+        }
+        if (ran.isEmpty()) {
+            description.append("\nNo commands counted yet.");
+        }
+        description.append(String.format(Locale.ROOT, "\nStorage: %d file writes, %s; %.1f KB written",
+                this.writes.getCount(), describeLatency(this.writes), this.bytesWritten.sum() / BYTES_PER_KILOBYTE));
+        if (this.loadNanos >= 0) {
+            description.append(String.format(Locale.ROOT, "\nLoaded %d tasks in %.1f ms",
+                    this.loadedTaskCount, getLoadMillis()));
+        }
+        if (this.timeToFirstFrameMillis >= 0) {
+            description.append("\nFirst frame after " + this.timeToFirstFrameMillis + " ms");
+        }
+        return description.toString();
+    }
+
+    private static void describeCommand(StringBuilder description, CommandMetrics command) {
+        LatencyHistogram latency = command.getLatency();
+        String runs = latency.getCount() == 1 ? "run" : "runs";
+        description.append(String.format(Locale.ROOT, "%s: %d %s, %s, %.1f KB allocated per run",
+                command.getName(), latency.getCount(), runs, describeLatency(latency),
+                command.getMeanAllocatedBytes() / BYTES_PER_KILOBYTE));
+        if (command.getLockWait().getCount() > 0) {
+            description.append(String.format(Locale.ROOT, ", waited %.3f ms for other changes on average",
+                    command.getLockWait().getMeanMillis()));
+        }
+    }
+
+    private static String describeLatency(LatencyHistogram latency) {
+        return String.format(Locale.ROOT, "mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                latency.getMeanMillis(), latency.getPercentileMillis(0.5), latency.getPercentileMillis(0.99),
+                latency.getMaxMillis());
+    }
+
+    private Map<String, Long> byCommand(ToLongFunction<CommandMetrics> value) {
+        Map<String, Long> values = new TreeMap<>();
+        this.commands.forEach((name, command) -> values.put(name, value.applyAsLong(command)));
+        return values;
+    }
+
+    private Map<String, Double> byCommandMillis(ToDoubleFunction<LatencyHistogram> value) {
+        Map<String, Double> values = new TreeMap<>();
+        this.commands.forEach((name, command) -> values.put(name, value.applyAsDouble(command.getLatency())));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        return byCommand(command -> command.getLatency().getCount());
+    }
+
+    @Override
+    public Map<String, Double> getCommandMeanMillis() {
+        return byCommandMillis(LatencyHistogram::getMeanMillis);
+    }
+
+    @Override
+    public Map<String, Double> getCommandP99Millis() {
+        return byCommandMillis(latency -> latency.getPercentileMillis(0.99));
+    }
+
+    @Override
+    public Map<String, Long> getCommandMeanAllocatedBytes() {
+        return byCommand(CommandMetrics::getMeanAllocatedBytes);
+    }
+
+    @Override
+    public long getStorageWriteCount() {
+        return this.writes.getCount();
+    }
+
+    @Override
+    public double getStorageWriteMeanMillis() {
+        return this.writes.getMeanMillis();
+    }
+
+    @Override
+    public double getStorageWriteP99Millis() {
+        return this.writes.getPercentileMillis(0.99);
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return this.bytesWritten.sum();
+    }
+
+    @Override
+    public double getLoadMillis() {
+        return Math.max(this.loadNanos, 0) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getTimeToFirstFrameMillis() {
+        return this.timeToFirstFrameMillis;
+    }
+
+    /**
+     * Represents the write of one file, timed from when it started until it is finished.
+     */
+    public final class Write {
+        private final String file;
+        private final long startNanos = System.nanoTime();
+        private final StorageWriteEvent event = new StorageWriteEvent();
+
+        private Write(String file) {
+            this.file = file;
+            this.event.begin();
+        }
+
+        /**
+         * Finishes the write, counting it.
+         *
+         * @param bytes The number of bytes written.
+         */
+        public void finish(long bytes) {
+            writes.record(System.nanoTime() - this.startNanos);
+            bytesWritten.add(bytes);
+            this.event.end();
+            if (this.event.shouldCommit()) {
+                this.event.set(this.file, bytes);
+                this.event.commit();
+            }
+        }
+    }
+
+    /**
+     * Represents loading the task list, timed from when it started until it is finished.
+     */
+    public final class Load {
+        private final long startNanos = System.nanoTime();
+        private final TaskLoadEvent event = new TaskLoadEvent();
+
+        private Load() {
+            this.event.begin();
+        }
+
+        /**
+         * Finishes loading, recording how long it took.
+         *
+         * @param taskCount The number of tasks loaded.
+         */
+        public void finish(int taskCount) {
+            loadedTaskCount = taskCount;
+            loadNanos = System.nanoTime() - this.startNanos;
+            this.event.end();
+            if (this.event.shouldCommit()) {
+                this.event.set(taskCount);
+                this.event.commit();
+            }
+        }
+    }
+}
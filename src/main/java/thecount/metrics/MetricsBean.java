@@ -0,0 +1,32 @@
+package thecount.metrics;
+
+import java.util.Map;
+
+import javax.management.MXBean;
+
+/**
+ * The view of TheCount's metrics published over JMX, under the name {@code thecount:type=Metrics}.
+ * Durations are in milliseconds, and maps are keyed by command name.
+ */
+@MXBean
+public interface MetricsBean {
+    Map<String, Long> getCommandCounts();
+
+    Map<String, Double> getCommandMeanMillis();
+
+    Map<String, Double> getCommandP99Millis();
+
+    Map<String, Long> getCommandMeanAllocatedBytes();
+
+    long getStorageWriteCount();
+
+    double getStorageWriteMeanMillis();
+
+    double getStorageWriteP99Millis();
+
+    long getBytesWritten();
+
+    double getLoadMillis();
+
+    long getTimeToFirstFrameMillis();
+}
@@ -0,0 +1,29 @@
+package thecount.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for writing one file, such as the data file or the undo history.
+ */
+@Name("thecount.StorageWrite")
+@Label("Storage Write")
+@Category("TheCount")
+@Description("A file written by TheCount's storage")
+final class StorageWriteEvent extends Event {
+    @Label("File")
+    private String file;
+
+    @Label("Written")
+    @DataAmount
+    private long bytes;
+
+    void set(String file, long bytes) {
+        this.file = file;
+        this.bytes = bytes;
+    }
+}
@@ -0,0 +1,23 @@
+package thecount.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for loading the task list from storage, including replaying the journal.
+ */
+@Name("thecount.TaskLoad")
+@Label("Task Load")
+@Category("TheCount")
+@Description("Tasks loaded by TheCount's storage")
+final class TaskLoadEvent extends Event {
+    @Label("Tasks")
+    private int taskCount;
+
+    void set(int taskCount) {
+        this.taskCount = taskCount;
+    }
+}
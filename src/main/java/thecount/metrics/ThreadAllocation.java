@@ -0,0 +1,32 @@
+package thecount.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Reads how many bytes the current thread has allocated, where the JVM keeps count.
+ */
+final class ThreadAllocation {
+    private static final ThreadMXBean THREADS = findThreads();
+
+    private ThreadAllocation() {
+    }
+
+    private static ThreadMXBean findThreads() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof ThreadMXBean) || !((ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        return (ThreadMXBean) threads;
+    }
+
+    /**
+     * Gets the number of bytes the current thread has allocated since it started.
+     *
+     * @return The number of bytes, or -1 if the JVM does not count them.
+     */
+    static long currentThreadBytes() {
+        return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,48 @@
+package thecount.parser;
+
+import thecount.task.TaskList;
+
+/**
+ * Represents a command the user can type, such as {@code list} or {@code mark 2}.
+ * Commands are looked up by name in a {@link CommandRegistry}.
+ */
+interface Command {
+    /**
+     * Executes the command.
+     *
+     * @param userInput The user input, split into tokens; token 0 is the command word as typed.
+     * @param tasks The TaskList containing the tasks.
+     * @return The reply to show the user.
+     */
+    String execute(CommandLine userInput, TaskList tasks);
+
+    /**
+     * Checks if the command can change the task list, and so may need saving after it runs.
+     * Commands are read-only unless they say otherwise.
+     *
+     * @return True if the command can change the task list.
+     */
+    default boolean isMutating() {
+        return false;
+    }
+
+    /**
+     * Marks a command as one that can change the task list.
+     *
+     * @param command The command.
+     * @return The same command, declared mutating.
+     */
+    static Command mutating(Command command) {
+        return new Command() {
+            @Override
+            public String execute(CommandLine userInput, TaskList tasks) {
+                return command.execute(userInput, tasks);
+            }
+
+            @Override
+            public boolean isMutating() {
+                return true;
+            }
+        };
+    }
+}
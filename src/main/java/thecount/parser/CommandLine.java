@@ -0,0 +1,233 @@
+package thecount.parser;
+
+import java.util.Arrays;
+
+/**
+ * Represents one line of user input, split into whitespace-separated tokens in a single pass.
+ * Tokens are kept as offsets into the input, so no strings are created until a handler asks for one.
+ * The first token is the command word, which can be matched against command names without allocating.
+ */
+final class CommandLine {
+    private static final int INITIAL_TOKEN_CAPACITY = 8;
+
+    private final String input;
+    private int[] tokenBounds = new int[INITIAL_TOKEN_CAPACITY * 2];
+    private int tokenCount;
+
+    /**
+     * Splits the input into tokens.
+     *
+     * @param input The user input.
+     */
+    CommandLine(String input) {
+        this.input = input;
+        tokenize();
+    }
+
+    private void tokenize() {
+        int start = -1;
+        for (int i = 0; i <= input.length(); i++) {
+            boolean isSpace = i == input.length() || Character.isWhitespace(input.charAt(i));
+            if (!isSpace && start < 0) {
+                start = i;
+            } else if (isSpace && start >= 0) {
+                addToken(start, i);
+                start = -1;
+            }
+        }
+    }
+
+    private void addToken(int start, int end) {
+        if (tokenCount * 2 == tokenBounds.length) {
+            tokenBounds = Arrays.copyOf(tokenBounds, tokenBounds.length * 2);
+        }
+        tokenBounds[tokenCount * 2] = start;
+        tokenBounds[tokenCount * 2 + 1] = end;
+        tokenCount++;
+    }
+
+    /**
+     * Gets the number of tokens, including the command word.
+     */
+    int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Gets a token, where token 0 is the command word.
+     *
+     * @param i The index of the token.
+     * @return The token.
+     * @throws ArrayIndexOutOfBoundsException If there are not that many tokens.
+     */
+    String getToken(int i) {
+        checkToken(i);
+        return input.substring(tokenBounds[i * 2], tokenBounds[i * 2 + 1]);
+    }
+
+    /**
+     * Checks if a token is exactly the given text.
+     *
+     * @param i The index of the token.
+     * @param text The text to compare against.
+     * @return True if the token exists and equals the text.
+     */
+    boolean isToken(int i, String text) {
+        if (i >= tokenCount) {
+            return false;
+        }
+        int start = tokenBounds[i * 2];
+        int length = tokenBounds[i * 2 + 1] - start;
+        return length == text.length() && input.startsWith(text, start);
+    }
+
+    /**
+     * Checks if a token is the given text, ignoring case.
+     *
+     * @param i The index of the token.
+     * @param text The text to compare against.
+     * @return True if the token exists and equals the text, ignoring case.
+     */
+    boolean isTokenIgnoringCase(int i, String text) {
+        return i < tokenCount
+                && getTokenLength(i) == text.length()
+                && input.regionMatches(true, tokenBounds[i * 2], text, 0, text.length());
+    }
+
+    /**
+     * Checks if a token is the start of the given text, ignoring case.
+     *
+     * @param i The index of the token.
+     * @param text The text the token may start.
+     * @return True if the token exists and starts the text, ignoring case.
+     */
+    boolean isTokenPrefixOf(int i, String text) {
+        return i < tokenCount
+                && getTokenLength(i) <= text.length()
+                && input.regionMatches(true, tokenBounds[i * 2], text, 0, getTokenLength(i));
+    }
+
+    /**
+     * Checks if a token abbreviates the given text, ignoring case: it starts with the text's first letter
+     * and its letters appear in the text in the same order, e.g. {@code dln} for {@code deadline}.
+     *
+     * @param i The index of the token.
+     * @param text The text the token may abbreviate.
+     * @return True if the token exists and abbreviates the text.
+     */
+    boolean isTokenAbbreviationOf(int i, String text) {
+        if (i >= tokenCount || text.isEmpty()
+                || Character.toLowerCase(getTokenInitial(i)) != Character.toLowerCase(text.charAt(0))) {
+            return false;
+        }
+        int matched = 0;
+        for (int at = tokenBounds[i * 2]; at < tokenBounds[i * 2 + 1]; at++) {
+            char c = Character.toLowerCase(input.charAt(at));
+            while (matched < text.length() && Character.toLowerCase(text.charAt(matched)) != c) {
+                matched++;
+            }
+            if (matched == text.length()) {
+                return false;
+            }
+            matched++;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the first character of a token.
+     *
+     * @param i The index of the token.
+     * @return The first character.
+     * @throws ArrayIndexOutOfBoundsException If there are not that many tokens.
+     */
+    char getTokenInitial(int i) {
+        checkToken(i);
+        return input.charAt(tokenBounds[i * 2]);
+    }
+
+    private int getTokenLength(int i) {
+        return tokenBounds[i * 2 + 1] - tokenBounds[i * 2];
+    }
+
+    /**
+     * Checks if a token starts with the given prefix.
+     *
+     * @param i The index of the token.
+     * @param prefix The prefix to look for.
+     * @return True if the token exists and starts with the prefix.
+     */
+    boolean tokenStartsWith(int i, String prefix) {
+        return i < tokenCount
+                && tokenBounds[i * 2 + 1] - tokenBounds[i * 2] >= prefix.length()
+                && input.startsWith(prefix, tokenBounds[i * 2]);
+    }
+
+    /**
+     * Reads a token as a decimal int, without creating a string for it.
+     *
+     * @param i The index of the token.
+     * @return The number.
+     * @throws ArrayIndexOutOfBoundsException If there are not that many tokens.
+     * @throws NumberFormatException If the token is not a number.
+     */
+    int parseToken(int i) {
+        checkToken(i);
+        return Integer.parseInt(input, tokenBounds[i * 2], tokenBounds[i * 2 + 1], 10);
+    }
+
+    /**
+     * Gets the rest of the input from the start of a token, with the whitespace around it removed.
+     *
+     * @param i The index of the first token to include.
+     * @return The rest of the input, or an empty string if there are not that many tokens.
+     */
+    String getTextFrom(int i) {
+        if (i >= tokenCount) {
+            return "";
+        }
+        return input.substring(tokenBounds[i * 2], tokenBounds[tokenCount * 2 - 1]);
+    }
+
+    /**
+     * Gets the input from the start of a token up to the first occurrence of a marker such as {@code /by},
+     * with the whitespace around it removed.
+     *
+     * @param i The index of the first token to include.
+     * @param marker The marker to stop at.
+     * @return The text before the marker, or up to the end if there is no marker.
+     */
+    String getTextBefore(int i, String marker) {
+        if (i >= tokenCount) {
+            return "";
+        }
+        int start = tokenBounds[i * 2];
+        int end = input.indexOf(marker, start);
+        return end < 0 ? getTextFrom(i) : input.substring(start, end).trim();
+    }
+
+    /**
+     * Gets the input after the first occurrence of a marker, up to the next occurrence of another marker
+     * or the end, with the whitespace around it removed. The command word is never searched for markers.
+     *
+     * @param marker The marker the text follows, e.g. {@code /from}.
+     * @param nextMarker The marker to stop at, e.g. {@code /to}.
+     * @return The text after the marker, or null if the marker does not appear.
+     */
+    String getTextAfter(String marker, String nextMarker) {
+        int from = tokenCount > 0 ? tokenBounds[1] : 0;
+        int markerIndex = input.indexOf(marker, from);
+        if (markerIndex < 0) {
+            return null;
+        }
+        int start = markerIndex + marker.length();
+        int end = input.indexOf(nextMarker, start);
+        return input.substring(start, end < 0 ? input.length() : end).trim();
+    }
+
+    private void checkToken(int i) {
+        if (i >= tokenCount) {
+            throw new ArrayIndexOutOfBoundsException("No token " + i + " in: " + input);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package thecount.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Looks up commands by the word the user typed.
+ * A word matches, in order of preference, a command's name or alias exactly (ignoring case),
+ * the start of exactly one command's name (e.g. {@code dead} for {@code deadline}),
+ * or exactly one command's name with letters left out (e.g. {@code tgs} for {@code tags}).
+ * A word that matches the start or letters of several commands matches none, so that typos are not guessed at.
+ * Commands registered as exact, such as {@code delete} or {@code bye}, are only matched by a name or alias typed in
+ * full: a word that would otherwise be taken for one of them matches nothing.
+ * Names are grouped by initial, and matching never creates a string.
+ */
+final class CommandRegistry {
+    private static final int ALPHABET_SIZE = 26;
+
+    private final List<List<Entry>> entriesByInitial = new ArrayList<>();
+
+    /**
+     * Constructs an empty CommandRegistry.
+     */
+    CommandRegistry() {
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            entriesByInitial.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Registers a command under its name and any aliases.
+     *
+     * @param name The name of the command, in lowercase letters.
+     * @param command The command.
+     * @param aliases Other names for the command, e.g. {@code dl} for {@code deadline}, in lowercase letters.
+     */
+    void register(String name, Command command, String... aliases) {
+        register(name, command, false, aliases);
+    }
+
+    /**
+     * Registers a command that must be typed in full, under its name and any aliases.
+     *
+     * @param name The name of the command, in lowercase letters.
+     * @param command The command.
+     * @param aliases Other names for the command, e.g. {@code rm} for {@code delete}, in lowercase letters.
+     */
+    void registerExact(String name, Command command, String... aliases) {
+        register(name, command, true, aliases);
+    }
+
+    private void register(String name, Command command, boolean isExactOnly, String... aliases) {
+        add(new Entry(name, command, false, isExactOnly));
+        for (String alias : aliases) {
+            add(new Entry(alias, command, true, isExactOnly));
+        }
+    }
+
+    private void add(Entry entry) {
+        assert entry.name.matches("[a-z]+") : "Command names must be lowercase letters";
+        entriesByInitial.get(entry.name.charAt(0) - 'a').add(entry);
+    }
+
+    /**
+     * Finds the command a line of input asks for.
+     *
+     * @param userInput The user input, whose first token is the command word.
+     * @return The command, or null if the word matches no command, more than one, or one that must be typed in full.
+     */
+    Command find(CommandLine userInput) {
+        List<Entry> candidates = candidatesFor(userInput);
+        for (Entry entry : candidates) {
+            if (userInput.isTokenIgnoringCase(0, entry.name)) {
+                return entry.command;
+            }
+        }
+        Entry byPrefix = null;
+        Entry byAbbreviation = null;
+        boolean isAbbreviationAmbiguous = false;
+        for (Entry entry : candidates) {
+            if (entry.isAlias) {
+                continue;
+            }
+            if (userInput.isTokenPrefixOf(0, entry.name)) {
+                if (byPrefix != null && byPrefix.command != entry.command) {
+                    return null;
+                }
+                byPrefix = entry;
+            } else if (userInput.isTokenAbbreviationOf(0, entry.name)) {
+                isAbbreviationAmbiguous |= byAbbreviation != null && byAbbreviation.command != entry.command;
+                byAbbreviation = entry;
+            }
+        }
+        Entry found = byPrefix != null ? byPrefix : isAbbreviationAmbiguous ? null : byAbbreviation;
+        // Exact commands still count towards ambiguity, so "de" is not taken for deadline because delete is exact
+        return found == null || found.isExactOnly ? null : found.command;
+    }
+
+    private List<Entry> candidatesFor(CommandLine userInput) {
+        if (userInput.getTokenCount() == 0) {
+            return List.of();
+        }
+        int initial = Character.toLowerCase(userInput.getTokenInitial(0)) - 'a';
+        if (initial < 0 || initial >= ALPHABET_SIZE) {
+            return List.of();
+        }
+        return entriesByInitial.get(initial);
+    }
+
+    /**
+     * Represents a name a command is registered under.
+     */
+    private static class Entry {
+        private final String name;
+        private final Command command;
+        private final boolean isAlias;
+        private final boolean isExactOnly;
+
+        Entry(String name, Command command, boolean isAlias, boolean isExactOnly) {
+            this.name = name;
+            this.command = command;
+            this.isAlias = isAlias;
+            this.isExactOnly = isExactOnly;
+        }
+    }
+}
@@ -1,42 +1,137 @@
 package thecount.parser;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.Scanner;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import thecount.exception.TheCountException;
+import thecount.metrics.CommandMetrics;
+import thecount.metrics.Metrics;
 import thecount.storage.Storage;
+import thecount.storage.Workspaces;
 import thecount.task.Deadline;
 import thecount.task.Event;
+import thecount.task.Recurrence;
+import thecount.task.Recurring;
+import thecount.task.Task;
 import thecount.task.TaskList;
 import thecount.task.ToDo;
 import thecount.ui.Goodbye;
+import thecount.ui.PrintList;
 import thecount.ui.Reply;
 
 /**
  * Parses user input and executes corresponding commands.
+ * A parser may be shared by several front-ends on different threads: commands that change the task list
+ * run one at a time, while commands that only read it run alongside them.
+ * Every command run is timed and counted in {@link Metrics}, which the {@code stats} command shows.
+ * Commands work on the task list in use, which {@code use} switches between the lists in {@link Workspaces}.
  */
 public class Parser {
-    private TaskList tasks;
-    private Scanner scanner;
-    private Storage loader;
+    private static final String PAGE_SIZE_OPTION = "--page-size";
+    private static final String IDS_OPTION = "--ids";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final String SUBSTRING_OPTION = "--substring";
+    private static final int AGENDA_DAYS = 7;
+    private static final String ALL_LISTS_OPTION = "--all";
+
+    private final Workspaces workspaces;
+    private volatile TaskList tasks;
+    private volatile Storage loader;
+    private boolean isExitingOnGoodbye;
+    // Held by changes and by switching lists, so a change never sees the list switched under it
+    private final Object changeLock = new Object();
+    private final CommandRegistry commands = new CommandRegistry();
+    private final Map<Command, CommandMetrics> metricsByCommand = new IdentityHashMap<>();
+    private final Command goodbye = (userInput, tasks) -> handleGoodbye();
+    private final Command undo = Command.mutating((userInput, tasks) -> handleUndo());
+    private final Command redo = Command.mutating((userInput, tasks) -> handleRedo());
+    private final Command use = (userInput, tasks) -> handleUse(userInput);
+    private final Command export = this::handleExport;
+    private long changeCount;
 
     /**
-     * Represents the types of commands.
+     * Constructs a Parser object with the task list and storage.
+     *
+     * @param tasks The task list to be managed.
+     * @param loader The storage instance for loading and saving tasks.
      */
-    public enum CommandType {
-        BYE, LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, DELETE, INVALID, FIND, TAG,
+    public Parser(TaskList tasks, Storage loader) {
+        this(tasks, loader, true);
     }
 
     /**
-     * Constructs a Parser object with the task list and storage.
+     * Constructs a Parser object with the task list and storage, which may leave exiting to its caller.
      *
      * @param tasks The task list to be managed.
      * @param loader The storage instance for loading and saving tasks.
+     * @param isExitingOnGoodbye Specifies if saying goodbye closes storage and exits the program.
+     *     If not, the caller is responsible for both.
      */
-    public Parser(TaskList tasks, Storage loader) {
-        this.tasks = tasks;
-        this.scanner = new Scanner(System.in);
-        this.loader = loader;
+    public Parser(TaskList tasks, Storage loader, boolean isExitingOnGoodbye) {
+        this(new Workspaces(loader.getConfig(), tasks, loader), isExitingOnGoodbye);
+    }
+
+    /**
+     * Constructs a Parser object over the named task lists, starting with the list in use.
+     *
+     * @param workspaces The task lists.
+     * @param isExitingOnGoodbye Specifies if saying goodbye closes the lists and exits the program.
+     *     If not, the caller is responsible for both.
+     */
+    public Parser(Workspaces workspaces, boolean isExitingOnGoodbye) {
+        this.workspaces = workspaces;
+        this.tasks = workspaces.getCurrent().getTasks();
+        this.loader = workspaces.getCurrent().getStorage();
+        this.isExitingOnGoodbye = isExitingOnGoodbye;
+        registerCommands();
+    }
+
+    /**
+     * Registers every command under its name and aliases.
+     * A new command only needs a handler and a line here.
+     */
+    private void registerCommands() {
+        registerExact("bye", goodbye, "exit");
+        register("list", this::handleListTask, "ls");
+        register("find", this::handleFindTask);
+        register("tags", (userInput, tasks) -> tasks.printTags());
+        register("due", this::handleDueTask);
+        register("overdue", (userInput, tasks) -> tasks.findDeadlinesDue(null, LocalDate.now()));
+        register("busy", this::handleBusyTask);
+        register("conflicts", (userInput, tasks) -> tasks.findConflicts());
+        registerExact("export", export);
+        register("stats", (userInput, tasks) -> new Reply(Metrics.get().describe()).displayMessage());
+        register("lists", (userInput, tasks) -> handleLists());
+        registerExact("use", use);
+        register("todo", Command.mutating(this::handleTodoTask));
+        register("deadline", Command.mutating(this::handleDeadlineTask), "dl");
+        register("event", Command.mutating(this::handleEventTask));
+        register("recur", Command.mutating(this::handleRecurringTask));
+        register("mark", Command.mutating(this::handleMarkTask));
+        register("unmark", Command.mutating(this::handleUnmarkTask));
+        register("tag", Command.mutating(this::handleTagTask));
+        register("untag", Command.mutating(this::handleUntagTask));
+        registerExact("delete", Command.mutating(this::handleDeleteTask), "rm");
+        registerExact("undo", undo);
+        registerExact("redo", redo);
+    }
+
+    private void register(String name, Command command, String... aliases) {
+        commands.register(name, command, aliases);
+        metricsByCommand.put(command, Metrics.get().forCommand(name));
+    }
+
+    /**
+     * Registers a command that exits, deletes, undoes or reaches outside the list,
+     * so must be typed in full rather than guessed from a start or abbreviation.
+     */
+    private void registerExact(String name, Command command, String... aliases) {
+        commands.registerExact(name, command, aliases);
+        metricsByCommand.put(command, Metrics.get().forCommand(name));
     }
 
     /**
@@ -45,75 +140,245 @@ public class Parser {
     public String parse(String userInput) {
         assert userInput != null : "User input must not be null";
 
-        // Checks for BYE command
-        while (true) {
-            switch (getCommandType(userInput)) {
-            case BYE:
-                return handleGoodbye();
-            case LIST:
-                return tasks.printList();
-            case MARK:
-                return handleMarkTask(userInput, tasks);
-            case UNMARK:
-                return handleUnmarkTask(userInput, tasks);
-            case TAG:
-                return handleTagTask(userInput, tasks);
-            case TODO:
-                return handleTodoTask(userInput, tasks);
-            case DEADLINE:
-                return handleDeadlineTask(userInput, tasks);
-            case EVENT:
-                return handleEventTask(userInput, tasks);
-            case DELETE:
-                return handleDeleteTask(userInput, tasks);
-            case FIND:
-                return handleFindTask(userInput, tasks);
-            case INVALID:
-                return handleInvalidCommand();
-            default:
-                break;
+        CommandLine line = new CommandLine(userInput);
+        Command command = commands.find(line);
+        if (command == null) {
+            return handleInvalidCommand();
+        }
+        try (CommandMetrics.Run run = metricsByCommand.get(command).start(command.isMutating())) {
+            return execute(command, line, userInput, run);
+        }
+    }
+
+    private String execute(Command command, CommandLine line, String userInput, CommandMetrics.Run run) {
+        if (command == goodbye) {
+            // Flushing waits for the storage writer, which needs the task list lock, so this must run unlocked
+            return handleGoodbye();
+        }
+        if (command == use) {
+            synchronized (changeLock) {
+                return command.execute(line, tasks);
+            }
+        }
+        if (!command.isMutating()) {
+            // Readers work from snapshots and the task list's own short locks, so they never wait on a change
+            return command.execute(line, tasks);
+        }
+        // A change and its records must not interleave with another change, or with the storage writer's snapshot
+        synchronized (changeLock) {
+            TaskList tasks = this.tasks;
+            synchronized (tasks) {
+                run.lockAcquired();
+                changeCount++;
+                if (command == undo || command == redo) {
+                    return command.execute(line, tasks);
+                }
+                loader.beginChange(userInput.trim());
+                try {
+                    return command.execute(line, tasks);
+                } finally {
+                    loader.endChange();
+                }
             }
-            userInput = scanner.nextLine();
         }
     }
-    private CommandType getCommandType(String userInput) {
-        String commandName = userInput.split("\\s+")[0].toUpperCase();
+
+    /**
+     * Checks if the user input says goodbye.
+     *
+     * @param userInput The user input.
+     * @return True if the input is the goodbye command.
+     */
+    public boolean isGoodbye(String userInput) {
+        return commands.find(new CommandLine(userInput)) == goodbye;
+    }
+
+    /**
+     * Checks if the user input exports the list, which writes to any path the user names.
+     *
+     * @param userInput The user input.
+     * @return True if the input is the export command.
+     */
+    public boolean isExport(String userInput) {
+        return commands.find(new CommandLine(userInput)) == export;
+    }
+
+    /**
+     * Gets the number of commands run so far that could have changed the task list.
+     * Read-only commands such as {@code list} and {@code find} are not counted.
+     *
+     * @return The number of changing commands run.
+     */
+    public long getChangeCount() {
+        synchronized (changeLock) {
+            return changeCount;
+        }
+    }
+
+    /**
+     * Gets the task list in use.
+     *
+     * @return The task list in use.
+     */
+    public TaskList getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Handles undoing the most recent change not yet undone.
+     *
+     * @return A message naming the change undone.
+     */
+    private String handleUndo() {
+        String label = loader.undo();
+        if (label == null) {
+            return handleException("There is nothing to undo. I can't count backwards!");
+        }
+        return new Reply("Ah-ah-ah! I've undone: " + label).displayMessage();
+    }
+
+    /**
+     * Handles making the most recently undone change again.
+     *
+     * @return A message naming the change redone.
+     */
+    private String handleRedo() {
+        String label = loader.redo();
+        if (label == null) {
+            return handleException("There is nothing to redo. I can't count that!");
+        }
+        return new Reply("Ah-ah-ah! I've redone: " + label).displayMessage();
+    }
+
+    /**
+     * Handles switching to another task list, e.g. {@code use team}, loading it if it is not loaded
+     * and creating it if it does not exist. Must be called while holding the change lock.
+     *
+     * @param userInput The user input containing the name of the list.
+     * @return A message naming the list now in use.
+     */
+    private String handleUse(CommandLine userInput) {
+        if (userInput.getTokenCount() != 2) {
+            return handleException("Please name ONE list, e.g. use team.");
+        }
         try {
-            return CommandType.valueOf(commandName);
-        } catch (IllegalArgumentException e) {
-            return CommandType.INVALID;
+            Workspaces.Workspace workspace = workspaces.select(userInput.getToken(1));
+            tasks = workspace.getTasks();
+            loader = workspace.getStorage();
+            return new Reply("Ah-ah-ah! Now counting the tasks in " + workspace.getName() + ". You have one, two... "
+                    + tasks.length() + " task(s)!").displayMessage();
+        } catch (TheCountException e) {
+            return handleException(e);
+        }
+    }
+
+    /**
+     * Handles listing the task lists, marking the one in use, with the number of tasks in each loaded list.
+     *
+     * @return The names of the lists.
+     */
+    private String handleLists() {
+        String currentName = workspaces.getCurrent().getName();
+        Map<String, Integer> counts = workspaces.countLoadedTasks();
+        StringBuilder message = new StringBuilder("Here are your lists:");
+        for (String name : workspaces.getNames()) {
+            message.append('\n').append(name.equals(currentName) ? "* " : "  ").append(name);
+            Integer count = counts.get(name);
+            message.append(count == null ? " (not loaded)" : ": " + count + " task(s)");
         }
+        return new Reply(message.toString()).displayMessage();
     }
 
     /**
      * Handles the action for saying goodbye.
-     * This method displays a goodbye message, closes the scanner, exits the program,
-     * and returns an empty string.
+     * Unless exiting is left to the caller, this method flushes and closes storage and exits the program.
      *
-     * @return An empty string.
+     * @return The goodbye message.
      */
     private String handleGoodbye() {
-        new Goodbye().displayMessage();
-        scanner.close();
+        String goodbye = new Goodbye().displayMessage();
+        if (!isExitingOnGoodbye) {
+            return goodbye;
+        }
+        workspaces.close();
         System.exit(0);
-        return "";
+        return goodbye;
     }
 
 
     /**
-     * Handles marking a task as completed.
+     * Handles listing one page of tasks, e.g. {@code list}, {@code list 3} or {@code list 2 --page-size 200},
+     * the tasks with a tag, e.g. {@code list #work}, or what is on each day of a week,
+     * e.g. {@code list week} or {@code list week 2026-10-19}. With {@code --ids}, each task's id is shown too.
+     *
+     * @param userInput The user input, optionally containing the page number and page size, a tag, or a week.
+     * @param tasks The TaskList containing the tasks.
+     * @return The tasks on the requested page, with the requested tag, or on the requested week.
+     */
+    private String handleListTask(CommandLine userInput, TaskList tasks) {
+        if (userInput.tokenStartsWith(1, "#")) {
+            return tasks.printTaggedTasks(userInput.getToken(1).substring(1));
+        }
+        if (userInput.isToken(1, "week")) {
+            try {
+                LocalDate from = userInput.getTokenCount() > 2
+                        ? LocalDate.parse(userInput.getToken(2))
+                        : LocalDate.now();
+                return tasks.printAgenda(from, AGENDA_DAYS);
+            } catch (DateTimeParseException e) {
+                return handleException("Please enter date in the format yyyy-MM-dd.");
+            }
+        }
+        int page = 1;
+        int pageSize = DEFAULT_PAGE_SIZE;
+        boolean isShowingIds = false;
+        try {
+            int i = 1;
+            while (i < userInput.getTokenCount()) {
+                if (userInput.isToken(i, IDS_OPTION)) {
+                    isShowingIds = true;
+                    i++;
+                } else if (userInput.isToken(i, PAGE_SIZE_OPTION)) {
+                    pageSize = userInput.parseToken(i + 1);
+                    i += 2;
+                } else {
+                    page = userInput.parseToken(i);
+                    i++;
+                }
+            }
+            if (pageSize < 1) {
+                throw new TheCountException("A page must hold at least ONE task!");
+            }
+            return tasks.printList(page, pageSize, isShowingIds);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return handleException("Please put a number. I can't count that!");
+        } catch (TheCountException e) {
+            return handleException(e);
+        }
+    }
+
+    /**
+     * Handles marking tasks as completed, e.g. {@code mark 2}, {@code mark 1-500} or {@code mark 3,7,9},
+     * or one occurrence of a recurring task, e.g. {@code mark 2 2026-10-20}.
      *
-     * @param userInput The user input containing the task number to mark.
+     * @param userInput The user input containing the tasks to mark.
      * @param tasks The TaskList containing the tasks.
      * @return A message indicating the result of marking the task.
      */
-    private String handleMarkTask(String userInput, TaskList tasks) {
+    private String handleMarkTask(CommandLine userInput, TaskList tasks) {
         assert tasks != null : "TaskList (tasks) must not be null";
+        if (userInput.getTokenCount() > 2) {
+            return handleMarkOccurrence(userInput, tasks, true);
+        }
         try {
-            int taskNumber = Integer.parseInt(userInput.split("\\s+")[1]);
-
-            String result = tasks.markTask(taskNumber, true);
-            loader.write(tasks);
+            int[] taskNumbers = TaskSelector.select(userInput.getToken(1), tasks);
+            long[] ids = tasks.getIdsAt(taskNumbers);
+            loader.rememberForUndo(tasks.getTasksAt(taskNumbers));
+
+            String result = taskNumbers.length == 1
+                    ? tasks.markTask(taskNumbers[0], true)
+                    : tasks.markTasks(taskNumbers);
+            loader.logMark(ids);
             return result;
         } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
             return handleException("Please put a number. I can't count that!");
@@ -123,19 +388,27 @@ public class Parser {
     }
 
     /**
-     * Handles unmarking a completed task.
+     * Handles unmarking completed tasks, e.g. {@code unmark 2} or {@code unmark done},
+     * or one occurrence of a recurring task, e.g. {@code unmark 2 2026-10-20}.
      *
-     * @param userInput The user input containing the task number to unmark.
+     * @param userInput The user input containing the tasks to unmark.
      * @param tasks The TaskList containing the tasks.
      * @return A message indicating the result of unmarking the task.
      */
-    private String handleUnmarkTask(String userInput, TaskList tasks) {
+    private String handleUnmarkTask(CommandLine userInput, TaskList tasks) {
         assert tasks != null : "TaskList (tasks) must not be null";
+        if (userInput.getTokenCount() > 2) {
+            return handleMarkOccurrence(userInput, tasks, false);
+        }
         try {
-            int taskNumber = Integer.parseInt(userInput.split("\\s+")[1]);
-
-            String result = tasks.unmarkTask(taskNumber, true);
-            loader.write(tasks);
+            int[] taskNumbers = TaskSelector.select(userInput.getToken(1), tasks);
+            long[] ids = tasks.getIdsAt(taskNumbers);
+            loader.rememberForUndo(tasks.getTasksAt(taskNumbers));
+
+            String result = taskNumbers.length == 1
+                    ? tasks.unmarkTask(taskNumbers[0], true)
+                    : tasks.unmarkTasks(taskNumbers);
+            loader.logUnmark(ids);
             return result;
         } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
             return handleException("Please put a number. I can't count that!");
@@ -144,27 +417,81 @@ public class Parser {
         }
     }
 
+    /**
+     * Handles marking one occurrence of a recurring task as done or not done, e.g. {@code mark 2 2026-10-20}.
+     * Only the date is stored, however far the task repeats.
+     *
+     * @param userInput The user input containing the task and the date of the occurrence.
+     * @param tasks The TaskList containing the tasks.
+     * @param isDone Specifies if the occurrence is marked done.
+     * @return A message indicating the result of marking the occurrence.
+     */
+    private String handleMarkOccurrence(CommandLine userInput, TaskList tasks, boolean isDone) {
+        try {
+            int taskNumber = TaskSelector.parsePosition(userInput.getToken(1), tasks);
+            LocalDate date = LocalDate.parse(userInput.getToken(2));
+            long id = tasks.getIdAt(taskNumber);
+            loader.rememberForUndo(tasks.getTasksAt(new int[] {taskNumber}));
+            String result = tasks.markOccurrence(taskNumber, date, isDone);
+            loader.logOccurrence(id, date, isDone);
+            return result;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return handleException("Please put a number. I can't count that!");
+        } catch (DateTimeParseException e) {
+            return handleException("Please enter date in the format yyyy-MM-dd.");
+        } catch (TheCountException e) {
+            return handleException(e);
+        }
+    }
 
     /**
-     * Handles the tagging of a task with a user-provided tag.
+     * Handles the tagging of tasks with a user-provided tag, e.g. {@code tag 1 work} or {@code tag 3,7,9 urgent}.
      *
-     * @param userInput The user input containing the task number and tag.
+     * @param userInput The user input containing the tasks and tag.
      * @param tasks The TaskList instance managing the tasks.
      * @return A message indicating the task has been tagged.
      */
-    private String handleTagTask(String userInput, TaskList tasks) {
+    private String handleTagTask(CommandLine userInput, TaskList tasks) {
         assert tasks != null : "TaskList (tasks) must not be null";
         try {
-            String[] parts = userInput.split("\\s+", 3);
-            int taskNumber = Integer.parseInt(parts[1]);
-            String tag = parts.length > 2 ? parts[2].trim() : "";
+            int[] taskNumbers = TaskSelector.select(userInput.getToken(1), tasks);
+            String tag = userInput.getTextFrom(2);
 
-            if (parts.length < 3 || tag.isEmpty()) {
+            if (tag.isEmpty()) {
                 throw new TheCountException("Tag cannot be empty. Please provide a tag.");
             }
-            String result = tasks.tagTask(taskNumber, tag);
-            loader.write(tasks);
+            long[] ids = tasks.getIdsAt(taskNumbers);
+            loader.rememberForUndo(tasks.getTasksAt(taskNumbers));
+            String result = taskNumbers.length == 1
+                    ? tasks.tagTask(taskNumbers[0], tag)
+                    : tasks.tagTasks(taskNumbers, tag);
+            loader.logTag(tag, ids);
+
+            return result;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return handleException("Please put a number. I can't count that!");
+        } catch (TheCountException e) {
+            return handleException(e);
+        }
+    }
+
+    /**
+     * Handles removing tags from a task.
+     *
+     * @param userInput The user input containing the task number and tags.
+     * @param tasks The TaskList instance managing the tasks.
+     * @return A message indicating the task has been untagged.
+     */
+    private String handleUntagTask(CommandLine userInput, TaskList tasks) {
+        assert tasks != null : "TaskList (tasks) must not be null";
+        try {
+            int taskNumber = TaskSelector.parsePosition(userInput.getToken(1), tasks);
+            String tag = userInput.getTextFrom(2);
 
+            long id = tasks.getIdAt(taskNumber);
+            loader.rememberForUndo(tasks.getTasksAt(new int[] {taskNumber}));
+            String result = tasks.untagTask(taskNumber, tag);
+            loader.logUntag(id, tag);
             return result;
         } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
             return handleException("Please put a number. I can't count that!");
@@ -173,29 +500,29 @@ public class Parser {
         }
     }
 
-    private String handleTodoTask(String userInput, TaskList tasks) {
+    private String handleTodoTask(CommandLine userInput, TaskList tasks) {
         try {
-            String info = getTaskInfo(userInput, " ");
+            String info = getTaskInfo(userInput.getTextFrom(1));
             ToDo todo = new ToDo(info);
 
             tasks.add(todo);
             String result = todo.displayMessage(tasks.length());
-            loader.write(tasks);
+            loader.logAdd(todo);
             return result;
         } catch (TheCountException e) {
             return handleException(e);
         }
     }
 
-    private String handleDeadlineTask(String userInput, TaskList tasks) {
+    private String handleDeadlineTask(CommandLine userInput, TaskList tasks) {
         try {
-            String info = getTaskInfo(userInput, "/by");
-            String deadlineTime = getTaskTime(userInput, "/by", "deadline");
+            String info = getTaskInfo(userInput.getTextBefore(1, "/by"));
+            String deadlineTime = getTaskTime(userInput.getTextAfter("/by", "/by"), "deadline");
             Deadline deadline = new Deadline(info, deadlineTime);
 
             tasks.add(deadline);
             String result = deadline.displayMessage(tasks.length());
-            loader.write(tasks);
+            loader.logAdd(deadline);
             return result;
         } catch (TheCountException e) {
             return handleException(e, "Example: deadline assignment /by 2021-12-31");
@@ -204,30 +531,68 @@ public class Parser {
         }
     }
 
-    private String handleEventTask(String userInput, TaskList tasks) {
+    private String handleEventTask(CommandLine userInput, TaskList tasks) {
         try {
-            String info = getTaskInfo(userInput, "/from");
-            String startTime = getStartTime(userInput);
-            String endTime = getTaskTime(userInput, "/to", "end time");
+            String info = getTaskInfo(userInput.getTextBefore(1, "/from"));
+            String startTime = getTaskTime(userInput.getTextAfter("/from", "/to"), "start time");
+            String endTime = getTaskTime(userInput.getTextAfter("/to", "/to"), "end time");
             Event event = new Event(info, startTime, endTime);
 
             tasks.add(event);
             String result = event.displayMessage(tasks.length());
-            loader.write(tasks);
+            loader.logAdd(event);
             return result;
         } catch (TheCountException e) {
             return handleException(e, "Example: event meeting /from 2pm /to 4pm");
         }
     }
 
-    private String handleDeleteTask(String userInput, TaskList tasks) {
+    /**
+     * Handles adding a recurring task, e.g. {@code recur standup /every week mon,wed /from 2026-10-19}.
+     * The task starts today unless {@code /from} is given, and repeats forever unless {@code /until} is given.
+     *
+     * @param userInput The user input containing the description, rule and dates.
+     * @param tasks The TaskList containing the tasks.
+     * @return A message indicating the task has been added.
+     */
+    private String handleRecurringTask(CommandLine userInput, TaskList tasks) {
+        try {
+            String info = getTaskInfo(userInput.getTextBefore(1, "/every"));
+            Recurrence recurrence = Recurrence.parse(getTaskTime(userInput.getTextAfter("/every", "/"), "rule"));
+            String from = userInput.getTextAfter("/from", "/");
+            String until = userInput.getTextAfter("/until", "/");
+            LocalDate start = from == null ? LocalDate.now() : LocalDate.parse(getTaskTime(from, "start date"));
+            LocalDate end = until == null ? null : LocalDate.parse(getTaskTime(until, "end date"));
+            if (end != null && end.isBefore(start)) {
+                throw new TheCountException("The task must not end before it starts. I can't count backwards!");
+            }
+            Recurring recurring = new Recurring(info, recurrence, start, end);
+
+            tasks.add(recurring);
+            String result = recurring.displayMessage(tasks.length());
+            loader.logAdd(recurring);
+            return result;
+        } catch (TheCountException e) {
+            return handleException(e, "Example: recur standup /every week mon,wed /from 2026-10-19 /until 2026-12-31");
+        } catch (DateTimeParseException e) {
+            return handleException("Please enter date in the format yyyy-MM-dd.");
+        }
+    }
+
+    private String handleDeleteTask(CommandLine userInput, TaskList tasks) {
         assert tasks != null : "TaskList (tasks) must not be null";
         try {
-            int taskNumber = Integer.parseInt(userInput.split("\\s+")[1]);
-            String result = tasks.deleteTask(taskNumber);
-            loader.write(tasks);
+            int[] taskNumbers = TaskSelector.select(userInput.getToken(1), tasks);
+            long[] ids = tasks.getIdsAt(taskNumbers);
+            loader.rememberForUndo(tasks.getTasksAt(taskNumbers));
+            String result = taskNumbers.length == 1
+                    ? tasks.deleteTask(taskNumbers[0])
+                    : tasks.deleteTasks(taskNumbers);
+            loader.logDelete(ids);
             return result;
-        } catch (NumberFormatException | ArrayIndexOutOfBoundsException | TheCountException e) {
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return handleException("Please put a number. I can't count that!");
+        } catch (TheCountException e) {
             return handleException(e);
         }
     }
@@ -240,51 +605,119 @@ public class Parser {
         }
     }
 
-    private String handleFindTask(String userInput, TaskList tasks) {
+    private String handleFindTask(CommandLine userInput, TaskList tasks) {
         assert tasks != null : "TaskList (tasks) must not be null";
-        try {
-            String keyword = userInput.split("\\s+", 2)[1].trim();
-            String result = tasks.findTask(keyword);
-            loader.write(tasks);
-            return result;
-        } catch (ArrayIndexOutOfBoundsException e) {
+        String keyword = userInput.getTextFrom(1);
+        if (keyword.isEmpty()) {
             return handleException("Please enter a keyword to search for.");
         }
+        if (userInput.isTokenIgnoringCase(1, ALL_LISTS_OPTION)) {
+            return findInAllLists(userInput.getTextFrom(2));
+        }
+        if (userInput.isTokenIgnoringCase(1, SUBSTRING_OPTION)) {
+            return tasks.findTaskBySubstring(userInput.getTextFrom(2));
+        }
+        return tasks.findTask(keyword);
     }
 
-    private String getTaskInfo(String userInput, String delimiter) throws TheCountException {
-        try {
-            String info;
+    /**
+     * Handles finding tasks in every list, e.g. {@code find --all book}, searching the lists in parallel.
+     *
+     * @param keyword The keyword to search for.
+     * @return The matching tasks, under the name of each list with any.
+     */
+    private String findInAllLists(String keyword) {
+        if (keyword.isEmpty()) {
+            return handleException("Please enter a keyword to search for.");
+        }
+        Map<String, List<Task>> found = workspaces.search(keyword);
+        if (found.isEmpty()) {
+            return handleException("I can't find any matching tasks in any list.");
+        }
+        StringBuilder message = new StringBuilder();
+        for (Map.Entry<String, List<Task>> entry : found.entrySet()) {
+            message.append(entry.getKey()).append(":\n").append(new PrintList(entry.getValue()).displayMessage());
+        }
+        return message.toString();
+    }
 
-            if (delimiter.equals(" ")) {
-                info = userInput.split("\\s+", 2)[1].trim();
-            } else {
-                info = userInput.split("\\s+", 2)[1].split(delimiter)[0].trim();
+    /**
+     * Handles finding the deadlines and occurrences of recurring tasks not yet done in a range of dates,
+     * e.g. {@code due before 2026-11-01} or {@code due between 2026-11-01 2026-11-30}.
+     * Both dates of a {@code between} range are included.
+     *
+     * @param userInput The user input containing the range of dates.
+     * @param tasks The TaskList containing the tasks.
+     * @return The deadlines and occurrences due in the range.
+     */
+    private String handleDueTask(CommandLine userInput, TaskList tasks) {
+        int tokenCount = userInput.getTokenCount();
+        try {
+            if (tokenCount == 3 && userInput.isToken(1, "before")) {
+                return tasks.findDue(null, LocalDate.parse(userInput.getToken(2)));
             }
-            if (info.isEmpty()) {
-                // Throw an the_count.exception if the_count.task information is not provided
-                throw new TheCountException("Description of activity cannot be empty.");
+            if (tokenCount == 4 && userInput.isToken(1, "between")) {
+                LocalDate from = LocalDate.parse(userInput.getToken(2));
+                LocalDate to = LocalDate.parse(userInput.getToken(3));
+                if (to.isBefore(from)) {
+                    throw new TheCountException("The range must not end before it starts. I can't count backwards!");
+                }
+                return tasks.findDue(from, to.plusDays(1));
             }
-            return info;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new TheCountException("Description of activity cannot be empty.");
+            throw new TheCountException("WHAT?! I can't count that!");
+        } catch (TheCountException e) {
+            return handleException(e, "Example: due before 2026-11-01 or due between 2026-11-01 2026-11-30");
+        } catch (DateTimeParseException e) {
+            return handleException("Please enter date in the format yyyy-MM-dd.");
         }
     }
 
-    private String getTaskTime(String userInput, String delimiter, String timeType) throws TheCountException {
+    /**
+     * Handles finding the events that take up part of a day, e.g. {@code busy 2026-10-20}.
+     *
+     * @param userInput The user input containing the date.
+     * @param tasks The TaskList containing the tasks.
+     * @return The events on that day.
+     */
+    private String handleBusyTask(CommandLine userInput, TaskList tasks) {
         try {
-            return userInput.split(delimiter)[1].trim();
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new TheCountException("Please fill in " + timeType + ".");
+            LocalDate date = LocalDate.parse(userInput.getToken(1));
+            return tasks.findEventsDuring(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        } catch (ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            return handleException("Please enter date in the format yyyy-MM-dd.");
         }
     }
 
-    private String getStartTime(String userInput) throws TheCountException {
+    /**
+     * Handles exporting the task list as a text file, whatever format it is stored in.
+     *
+     * @param userInput The user input, optionally containing the path to export to.
+     * @param tasks The TaskList containing the tasks.
+     * @return A message indicating where the tasks were exported to.
+     */
+    private String handleExport(CommandLine userInput, TaskList tasks) {
+        String path = userInput.getTokenCount() > 1 ? userInput.getTextFrom(1) : loader.getExportPath();
         try {
-            return userInput.split("/from")[1].split("/to")[0].trim();
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new TheCountException("Please fill in start time.");
+            int count = loader.exportText(path);
+            return new Reply("Ah-ah-ah! I have exported " + count + " task(s) to " + path).displayMessage();
+        } catch (IOException e) {
+            return handleException("I couldn't export to " + path + ". " + e.getMessage());
+        }
+    }
+
+    private String getTaskInfo(String info) throws TheCountException {
+        if (info.isEmpty()) {
+            // Throw an the_count.exception if the_count.task information is not provided
+            throw new TheCountException("Description of activity cannot be empty.");
+        }
+        return info;
+    }
+
+    private String getTaskTime(String time, String timeType) throws TheCountException {
+        if (time == null || time.isEmpty()) {
+            throw new TheCountException("Please fill in " + timeType + ".");
         }
+        return time;
     }
 
     private String handleException(Exception e) {
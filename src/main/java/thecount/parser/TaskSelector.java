@@ -0,0 +1,90 @@
+package thecount.parser;
+
+import java.util.BitSet;
+
+import thecount.exception.TheCountException;
+import thecount.task.Task;
+import thecount.task.TaskList;
+
+/**
+ * Reads selectors that pick one or more tasks, e.g. {@code 3}, {@code @12}, {@code 1-500}, {@code 3,7,9},
+ * or one of {@code all}, {@code done} and {@code undone}.
+ */
+final class TaskSelector {
+    private static final String ID_PREFIX = "@";
+    private static final String LIST_SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "-";
+
+    private TaskSelector() {
+    }
+
+    /**
+     * Finds the positions of the tasks a selector picks.
+     *
+     * @param selector The selector.
+     * @param tasks The TaskList containing the tasks.
+     * @return The distinct (index + 1) of each task picked, in increasing order.
+     * @throws NumberFormatException If part of the selector is not a number.
+     * @throws TheCountException If the selector refers to a task that does not exist or picks no tasks.
+     */
+    static int[] select(String selector, TaskList tasks) throws TheCountException {
+        int[] positions;
+        switch (selector.toLowerCase()) {
+        case "all":
+            positions = tasks.findPositions(task -> true);
+            break;
+        case "done":
+            positions = tasks.findPositions(Task::isDone);
+            break;
+        case "undone":
+            positions = tasks.findPositions(task -> !task.isDone());
+            break;
+        default:
+            positions = selectByNumber(selector, tasks);
+            break;
+        }
+        if (positions.length == 0) {
+            throw new TheCountException("No tasks match " + selector + ". I can't count that!");
+        }
+        return positions;
+    }
+
+    private static int[] selectByNumber(String selector, TaskList tasks) throws TheCountException {
+        BitSet positions = new BitSet();
+        for (String part : selector.split(LIST_SEPARATOR)) {
+            int separator = part.indexOf(RANGE_SEPARATOR);
+            if (separator < 0) {
+                int position = parsePosition(part, tasks);
+                if (position < 1 || position > tasks.length()) {
+                    throw new TheCountException("Invalid task number. I can't count that!");
+                }
+                positions.set(position);
+                continue;
+            }
+            int from = parsePosition(part.substring(0, separator), tasks);
+            int to = parsePosition(part.substring(separator + RANGE_SEPARATOR.length()), tasks);
+            if (from < 1 || to > tasks.length() || from > to) {
+                throw new TheCountException("Invalid task range " + part + ". I can't count that!");
+            }
+            positions.set(from, to + 1);
+        }
+        return positions.stream().toArray();
+    }
+
+    /**
+     * Reads a reference to a task, either its position in the list (e.g. {@code 3}) or its id (e.g. {@code @12}).
+     *
+     * @param reference The reference to the task.
+     * @param tasks The TaskList containing the task.
+     * @return The (index + 1) of the task.
+     * @throws NumberFormatException If the reference is not a number.
+     * @throws TheCountException If no task has the given id.
+     */
+    static int parsePosition(String reference, TaskList tasks) throws TheCountException {
+        String trimmed = reference.trim();
+        if (trimmed.startsWith(ID_PREFIX)) {
+            return tasks.positionOf(Long.parseLong(trimmed.substring(ID_PREFIX.length())));
+        }
+        return Integer.parseInt(trimmed);
+    }
+}
@@ -0,0 +1,380 @@
+package thecount.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import thecount.parser.Parser;
+import thecount.storage.StorageConfig;
+import thecount.storage.Workspaces;
+import thecount.task.Task;
+import thecount.task.TaskList;
+
+/**
+ * Serves the task list over HTTP on the loopback address, so scripts on the same machine can drive TheCount.
+ * Every reply is JSON:
+ * <ul>
+ * <li>{@code POST /command} runs the command sent as {@code {"command":"..."}} with the {@code application/json}
+ * content type, and replies {@code {"reply":"..."}}. {@code export}, which writes to any path it is given,
+ * is refused.</li>
+ * <li>{@code GET /tasks} lists the tasks, or one page of them with {@code ?page=2&size=50}.</li>
+ * <li>{@code GET /find?q=book} finds tasks as the {@code find} command does.</li>
+ * <li>{@code GET /due?before=2026-11-01} or {@code GET /due?from=2026-11-01&to=2026-11-30} finds the deadlines
+ * and occurrences of recurring tasks not yet done in a range of dates, both ends included;
+ * with neither, every deadline not yet done.</li>
+ * </ul>
+ * Every request must carry the token the server made when it started, in the {@value #TOKEN_HEADER} header.
+ * Browsers only send such a header from another site after asking the server, which never agrees, and requests
+ * that say they come from a page on another site are refused outright, so web pages cannot drive the server.
+ * <p>
+ * Each request runs on a virtual thread of its own where the JVM has them, or on a pool of threads otherwise.
+ * Queries read the task list in use, which {@code use} switches, without waiting for commands that change it.
+ * Usage: {@code java -jar thecount.jar --serve [port]}.
+ */
+public class ApiServer {
+    /** The option that starts TheCount as a server. */
+    public static final String SERVE_OPTION = "--serve";
+    /** The header every request must carry the server's token in. */
+    public static final String TOKEN_HEADER = "X-TheCount-Token";
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 256;
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final int TOKEN_BYTES = 16;
+    private static final Set<String> LOCAL_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]");
+
+    private final Workspaces workspaces;
+    private final Parser parser;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String token;
+
+    /**
+     * Constructs an ApiServer, loading tasks from storage and binding to the port, without serving yet.
+     *
+     * @param config The storage settings.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ApiServer(StorageConfig config, int port) throws IOException {
+        this.workspaces = new Workspaces(config);
+        this.parser = new Parser(this.workspaces, false);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.executor = newRequestExecutor();
+        this.token = newToken();
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/command", exchange -> handle(exchange, "POST", this::handleCommand));
+        this.server.createContext("/tasks", exchange -> handle(exchange, "GET", this::handleTasks));
+        this.server.createContext("/find", exchange -> handle(exchange, "GET", this::handleFind));
+        this.server.createContext("/due", exchange -> handle(exchange, "GET", this::handleDue));
+    }
+
+    /**
+     * Creates an executor that runs each request on a new virtual thread, or, on a JVM without virtual threads,
+     * a pool of daemon threads. Virtual threads are looked up reflectively so the server still runs on older JVMs.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+            return Executors.newFixedThreadPool(threadCount, runnable -> {
+                Thread thread = new Thread(runnable, "api-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Makes a random token, written in hexadecimal.
+     */
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(TOKEN_BYTES * 2);
+        for (byte b : bytes) {
+            token.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return token.toString();
+    }
+
+    /**
+     * Starts serving requests on background threads.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the token every request must carry in the {@value #TOKEN_HEADER} header, made anew each run.
+     *
+     * @return The token.
+     */
+    public String getToken() {
+        return this.token;
+    }
+
+    /**
+     * Stops serving, waiting briefly for requests in progress, then saves and closes storage.
+     */
+    public void stop() {
+        this.server.stop(1);
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.workspaces.close();
+    }
+
+    /**
+     * Handles a request that produces JSON, replying with an error instead if it uses the wrong method,
+     * comes from a web page on another site, lacks the token, or its query is invalid.
+     */
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                reply(exchange, 405, error("Use " + method + " for " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            if (!isLocalOrigin(exchange.getRequestHeaders().getFirst("Origin"))) {
+                reply(exchange, 403, error("Requests from web pages on other sites are not allowed."));
+                return;
+            }
+            if (!hasToken(exchange)) {
+                reply(exchange, 401, error("Send the token the server printed when it started in the "
+                        + TOKEN_HEADER + " header."));
+                return;
+            }
+            reply(exchange, 200, endpoint.respond(exchange));
+        } catch (RejectedException e) {
+            reply(exchange, e.status, error(e.getMessage()));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            reply(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println(e);
+            reply(exchange, 500, error("Something went wrong. I can't count that!"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Checks if a request's Origin header, if it has one, names a page served from this machine.
+     */
+    private static boolean isLocalOrigin(String origin) {
+        if (origin == null) {
+            return true;
+        }
+        try {
+            URI uri = new URI(origin);
+            return ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))
+                    && uri.getHost() != null && LOCAL_HOSTS.contains(uri.getHost().toLowerCase());
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private boolean hasToken(HttpExchange exchange) {
+        String sent = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        // Compared in constant time, so the token cannot be guessed from how long a rejection takes
+        return sent != null && MessageDigest.isEqual(sent.getBytes(StandardCharsets.UTF_8),
+                this.token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void reply(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static StringBuilder error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        return Json.appendString(json, message == null ? "Invalid request." : message).append('}');
+    }
+
+    /**
+     * Handles {@code POST /command}, running the command in the JSON request body through the parser
+     * as one line of user input.
+     */
+    private StringBuilder handleCommand(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.split(";", 2)[0].trim().equalsIgnoreCase("application/json")) {
+            throw new RejectedException(415, "Send the command as application/json, e.g. {\"command\":\"list\"}.");
+        }
+        String input;
+        try (InputStream body = exchange.getRequestBody()) {
+            input = Json.readStringMember(new String(body.readAllBytes(), StandardCharsets.UTF_8), "command").trim();
+        }
+        if (input.isEmpty() || input.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Send exactly one command.");
+        }
+        if (this.parser.isExport(input)) {
+            throw new RejectedException(403, "Exporting writes files, so it is only allowed in TheCount itself.");
+        }
+        StringBuilder json = new StringBuilder("{\"reply\":");
+        return Json.appendString(json, this.parser.parse(input)).append('}');
+    }
+
+    /**
+     * Handles {@code GET /tasks}, listing every task, or one page of them if a page is asked for.
+     */
+    private StringBuilder handleTasks(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange);
+        List<Task> snapshot = this.parser.getTasks().getTasks();
+        List<Task> listed = snapshot;
+        if (query.containsKey("page") || query.containsKey("size")) {
+            int page = parsePositive(query.getOrDefault("page", "1"), "page");
+            int size = parsePositive(query.getOrDefault("size", "100"), "size");
+            long from = Math.min((long) (page - 1) * size, snapshot.size());
+            listed = snapshot.subList((int) from, (int) Math.min(from + size, snapshot.size()));
+        }
+        StringBuilder json = new StringBuilder(BUFFER_SIZE).append("{\"total\":").append(snapshot.size());
+        return Json.appendTasks(json.append(",\"tasks\":"), listed).append('}');
+    }
+
+    /**
+     * Handles {@code GET /find?q=...}.
+     */
+    private StringBuilder handleFind(HttpExchange exchange) {
+        String keyword = parseQuery(exchange).getOrDefault("q", "").trim();
+        if (keyword.isEmpty()) {
+            throw new IllegalArgumentException("Please enter a keyword to search for, e.g. /find?q=book");
+        }
+        return tasksReply(this.parser.getTasks().searchTasks(keyword));
+    }
+
+    /**
+     * Handles {@code GET /due}, with {@code before}, or with {@code from} and {@code to}, both included.
+     */
+    private StringBuilder handleDue(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange);
+        LocalDate from = query.containsKey("from") ? LocalDate.parse(query.get("from")) : null;
+        LocalDate before = null;
+        if (query.containsKey("before")) {
+            before = LocalDate.parse(query.get("before"));
+        } else if (query.containsKey("to")) {
+            before = LocalDate.parse(query.get("to")).plusDays(1);
+        }
+        TaskList tasks = this.parser.getTasks();
+        // Recurring tasks may never end, so their occurrences are only listed up to a date
+        return tasksReply(before == null ? tasks.getDeadlinesDue(from, null) : tasks.getDue(from, before));
+    }
+
+    private static StringBuilder tasksReply(List<Task> found) {
+        StringBuilder json = new StringBuilder(BUFFER_SIZE).append("{\"tasks\":");
+        return Json.appendTasks(json, found).append('}');
+    }
+
+    private static int parsePositive(String value, String name) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("The " + name + " must be a positive number.");
+    }
+
+    /**
+     * Reads the parameters of the request's query string, such as {@code q=read%20book}.
+     */
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            String value = equals < 0 ? "" : parameter.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Produces the JSON reply to a request.
+     */
+    private interface Endpoint {
+        StringBuilder respond(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Signals that a request is refused, with the status to reply with.
+     */
+    private static class RejectedException extends RuntimeException {
+        private final int status;
+
+        RejectedException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Starts the server from the command-line arguments, saving changes when the JVM shuts down.
+     *
+     * @param args The command-line arguments, starting with {@code --serve} and optionally followed by a port.
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        try {
+            if (args.length > 1) {
+                port = Integer.parseInt(args[1]);
+            }
+            ApiServer apiServer = new ApiServer(StorageConfig.fromSystemProperties(), port);
+            Runtime.getRuntime().addShutdownHook(new Thread(apiServer::stop, "api-stop"));
+            apiServer.start();
+            System.out.println("Ah-ah-ah! Counting on http://localhost:" + apiServer.getPort() + "/");
+            System.out.println("Send " + TOKEN_HEADER + ": " + apiServer.getToken() + " with every request.");
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: " + SERVE_OPTION + " [port]");
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println(e);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package thecount.server;
+
+import java.util.List;
+
+import thecount.task.Deadline;
+import thecount.task.Event;
+import thecount.task.Recurring;
+import thecount.task.Task;
+
+/**
+ * Writes the JSON the API server replies with, straight into a StringBuilder, and reads the JSON it is sent.
+ * Tasks are written as objects such as
+ * {@code {"id":3,"type":"D","done":false,"description":"return book","tags":["school"],"by":"2026-11-01"}},
+ * where events have {@code from} and {@code to} instead of {@code by}.
+ */
+final class Json {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private Json() {
+    }
+
+    /**
+     * Appends a string as a JSON string, escaping the characters JSON does not allow as they are.
+     *
+     * @param json The JSON being written.
+     * @param text The string to append.
+     * @return The JSON being written.
+     */
+    static StringBuilder appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xf]);
+                } else {
+                    json.append(c);
+                }
+                break;
+            }
+        }
+        return json.append('"');
+    }
+
+    /**
+     * Appends a task as a JSON object.
+     *
+     * @param json The JSON being written.
+     * @param task The task to append.
+     * @return The JSON being written.
+     */
+    static StringBuilder appendTask(StringBuilder json, Task task) {
+        json.append("{\"id\":").append(task.getId()).append(",\"type\":");
+        appendString(json, task.getType());
+        json.append(",\"done\":").append(task.isDone()).append(",\"description\":");
+        appendString(json, task.getDescription());
+        json.append(",\"tags\":[");
+        boolean isFirst = true;
+        for (String tag : task.getTags()) {
+            if (!isFirst) {
+                json.append(',');
+            }
+            appendString(json, tag);
+            isFirst = false;
+        }
+        json.append(']');
+        if (task instanceof Deadline) {
+            json.append(",\"by\":");
+            appendString(json, ((Deadline) task).getDeadlineTime());
+        } else if (task instanceof Event) {
+            json.append(",\"from\":");
+            appendString(json, ((Event) task).getStartTime());
+            json.append(",\"to\":");
+            appendString(json, ((Event) task).getEndTime());
+        } else if (task instanceof Recurring) {
+            Recurring recurring = (Recurring) task;
+            json.append(",\"every\":");
+            appendString(json, recurring.getRecurrence().toString());
+            json.append(",\"from\":");
+            appendString(json, recurring.getStart().toString());
+            if (recurring.getUntil() != null) {
+                json.append(",\"until\":");
+                appendString(json, recurring.getUntil().toString());
+            }
+        } else if (task instanceof Recurring.Occurrence) {
+            json.append(",\"on\":");
+            appendString(json, ((Recurring.Occurrence) task).getDate().toString());
+        }
+        return json.append('}');
+    }
+
+    /**
+     * Appends tasks as a JSON array.
+     *
+     * @param json The JSON being written.
+     * @param tasks The tasks to append.
+     * @return The JSON being written.
+     */
+    static StringBuilder appendTasks(StringBuilder json, List<Task> tasks) {
+        json.append('[');
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendTask(json, tasks.get(i));
+        }
+        return json.append(']');
+    }
+
+    /**
+     * Reads the value of the only member of a JSON object, such as {@code {"command":"list"}}.
+     *
+     * @param json The JSON object.
+     * @param name The name the member must have.
+     * @return The value of the member.
+     * @throws IllegalArgumentException If the JSON is not an object with just that member, holding a string.
+     */
+    static String readStringMember(String json, String name) {
+        Reader reader = new Reader(json);
+        reader.expect('{');
+        if (!reader.readString().equals(name)) {
+            throw reader.invalid();
+        }
+        reader.expect(':');
+        String value = reader.readString();
+        reader.expect('}');
+        reader.skipWhitespace();
+        if (reader.position != json.length()) {
+            throw reader.invalid();
+        }
+        return value;
+    }
+
+    /**
+     * Reads JSON one token at a time.
+     */
+    private static class Reader {
+        private final String json;
+        private int position;
+
+        Reader(String json) {
+            this.json = json;
+        }
+
+        void skipWhitespace() {
+            while (this.position < this.json.length() && " \t\r\n".indexOf(this.json.charAt(this.position)) >= 0) {
+                this.position++;
+            }
+        }
+
+        void expect(char expected) {
+            skipWhitespace();
+            if (this.position == this.json.length() || this.json.charAt(this.position) != expected) {
+                throw invalid();
+            }
+            this.position++;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder text = new StringBuilder();
+            while (this.position < this.json.length()) {
+                char c = this.json.charAt(this.position++);
+                if (c == '"') {
+                    return text.toString();
+                } else if (c < 0x20) {
+                    throw invalid();
+                } else if (c != '\\') {
+                    text.append(c);
+                } else if (this.position < this.json.length()) {
+                    text.append(readEscaped(this.json.charAt(this.position++)));
+                }
+            }
+            throw invalid();
+        }
+
+        private char readEscaped(char escaped) {
+            switch (escaped) {
+            case '"':
+            case '\\':
+            case '/':
+                return escaped;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int code = 0;
+                for (int end = this.position + 4; this.position < end; this.position++) {
+                    int digit = this.position < this.json.length()
+                            ? Character.digit(this.json.charAt(this.position), 16) : -1;
+                    if (digit < 0) {
+                        throw invalid();
+                    }
+                    code = code * 16 + digit;
+                }
+                return (char) code;
+            default:
+                throw invalid();
+            }
+        }
+
+        IllegalArgumentException invalid() {
+            return new IllegalArgumentException("Send the command as JSON, e.g. {\"command\":\"list\"}.");
+        }
+    }
+}
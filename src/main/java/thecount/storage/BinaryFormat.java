@@ -0,0 +1,337 @@
+package thecount.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+
+import thecount.exception.TheCountException;
+import thecount.task.Deadline;
+import thecount.task.Event;
+import thecount.task.Recurrence;
+import thecount.task.Recurring;
+import thecount.task.Task;
+import thecount.task.TaskList;
+import thecount.task.ToDo;
+
+/**
+ * Encodes and decodes the compact binary data file.
+ * The file starts with a header of the magic bytes {@code TCNT}, a version, the journal sequence
+ * covered by the snapshot and the number of tasks. Each task is then stored as a type byte, a flags byte,
+ * and its fields: strings as an int length followed by UTF-8 bytes, and deadline dates as an epoch-day int.
+ * From version 2, the header also holds the position of a table of each task's offset, written after the tasks,
+ * so a single task can be decoded without reading those before it.
+ * From version 3, each task's fields are followed by its tags, as a short count and then the tag names.
+ * Older files kept tags at the end of the description, and those are moved into the tags as they are decoded.
+ * From version 4, each task's flags are followed by its id as a long; older files leave ids to the task list.
+ * From version 5, a task may be recurring, with its rule as a string, its start date and its end date as
+ * epoch-day ints (the end as {@link Integer#MIN_VALUE} if it has none), and the count and epoch days
+ * of the occurrences marked done.
+ */
+public class BinaryFormat {
+    private static final byte[] MAGIC = {'T', 'C', 'N', 'T'};
+    private static final short VERSION = 5;
+    private static final short FIRST_INDEXED_VERSION = 2;
+    private static final short FIRST_TAGGED_VERSION = 3;
+    private static final short FIRST_ID_VERSION = 4;
+    private static final int HEADER_SIZE_V1 = MAGIC.length + Short.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int TABLE_POSITION_OFFSET = HEADER_SIZE_V1;
+    private static final int HEADER_SIZE = HEADER_SIZE_V1 + Integer.BYTES;
+    private static final byte[] NO_SCRATCH = new byte[0];
+    private static final byte FLAG_DONE = 1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Checks if the given file is in the binary format, judging by its magic bytes.
+     *
+     * @param path The file to check.
+     * @return True if the file starts with the binary format's magic bytes.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (InputStream input = Files.newInputStream(path)) {
+            return Arrays.equals(input.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer) {
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the tasks straight into a file, a buffer at a time, so the file is never held in memory whole.
+     * Each task is encoded on its own and gathered into the given buffer, which is written out whenever it fills.
+     * The offset table is written after the tasks, and its position is then written into the header.
+     *
+     * @param tasks The tasks to encode, in order.
+     * @param sequence The journal sequence covered by this snapshot.
+     * @param channel The file to write to, positioned where the data file starts.
+     * @param buffer The buffer to gather writes in, typically direct and reused between snapshots.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void encode(List<Task> tasks, long sequence, FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        assert buffer.capacity() >= HEADER_SIZE : "Buffer must hold the header";
+        long start = channel.position();
+        buffer.clear();
+        buffer.put(MAGIC).putShort(VERSION).putLong(sequence).putInt(tasks.size()).putInt(0);
+        int position = HEADER_SIZE;
+        int[] offsets = new int[tasks.size()];
+        ByteBuffer taskBuffer = ByteBuffer.allocate(256);
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = position;
+            taskBuffer = encodeTask(taskBuffer.clear(), tasks.get(i)).flip();
+            position += taskBuffer.remaining();
+            gather(channel, buffer, taskBuffer);
+        }
+        for (int offset : offsets) {
+            if (buffer.remaining() < Integer.BYTES) {
+                drain(channel, buffer);
+            }
+            buffer.putInt(offset);
+        }
+        drain(channel, buffer);
+        ByteBuffer tablePosition = ByteBuffer.allocate(Integer.BYTES).putInt(0, position);
+        while (tablePosition.hasRemaining()) {
+            channel.write(tablePosition, start + TABLE_POSITION_OFFSET + tablePosition.position());
+        }
+    }
+
+    /**
+     * Adds the content to the buffer, first writing out the buffer if it is too full,
+     * or writing the content straight to the file if it is larger than the buffer.
+     */
+    private static void gather(FileChannel channel, ByteBuffer buffer, ByteBuffer content) throws IOException {
+        if (buffer.remaining() < content.remaining()) {
+            drain(channel, buffer);
+        }
+        if (buffer.remaining() < content.remaining()) {
+            writeFully(channel, content);
+            return;
+        }
+        buffer.put(content);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        writeFully(channel, buffer.flip());
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer content) throws IOException {
+        while (content.hasRemaining()) {
+            channel.write(content);
+        }
+    }
+
+    private static ByteBuffer encodeTask(ByteBuffer buffer, Task task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        buffer = ensureCapacity(buffer, 2 + Long.BYTES + Integer.BYTES + description.length);
+        buffer.put((byte) task.getType().charAt(0));
+        buffer.put(task.isDone() ? FLAG_DONE : 0);
+        buffer.putLong(task.getId());
+        buffer.putInt(description.length).put(description);
+
+        if (task instanceof Deadline) {
+            buffer = ensureCapacity(buffer, Integer.BYTES);
+            buffer.putInt((int) ((Deadline) task).getDeadlineDate().toEpochDay());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            buffer = putString(buffer, event.getStartTime());
+            buffer = putString(buffer, event.getEndTime());
+        } else if (task instanceof Recurring) {
+            buffer = encodeRecurrence(buffer, (Recurring) task);
+        }
+        buffer = ensureCapacity(buffer, Short.BYTES);
+        buffer.putShort((short) task.getTags().size());
+        for (String tag : task.getTags()) {
+            buffer = putString(buffer, tag);
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer encodeRecurrence(ByteBuffer buffer, Recurring recurring) {
+        buffer = putString(buffer, recurring.getRecurrence().toString());
+        SortedSet<LocalDate> doneDates = recurring.getDoneDates();
+        buffer = ensureCapacity(buffer, Integer.BYTES * (3 + doneDates.size()));
+        buffer.putInt((int) recurring.getStart().toEpochDay());
+        buffer.putInt(recurring.getUntil() == null ? NO_DATE : (int) recurring.getUntil().toEpochDay());
+        buffer.putInt(doneDates.size());
+        for (LocalDate date : doneDates) {
+            buffer.putInt((int) date.toEpochDay());
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer = ensureCapacity(buffer, Integer.BYTES + bytes.length);
+        return buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + needed);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        return grown.put(buffer.flip());
+    }
+
+    /**
+     * Decodes the tasks in the buffer into the task list.
+     *
+     * @param buffer The contents of a binary data file.
+     * @param tasks The task list to load tasks into.
+     * @return The journal sequence covered by the snapshot.
+     * @throws IOException If the buffer is not a supported binary data file.
+     */
+    public static long decode(ByteBuffer buffer, TaskList tasks) throws IOException {
+        short version = readVersion(buffer);
+        long sequence = buffer.getLong();
+        int count = buffer.getInt();
+        if (version >= FIRST_INDEXED_VERSION) {
+            buffer.getInt();
+        }
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < count; i++) {
+            tasks.add(decodeTask(buffer, version, scratch));
+        }
+        return sequence;
+    }
+
+    /**
+     * Adds the tasks in the buffer to the task list without decoding them,
+     * so that each is only decoded when the task list first uses it.
+     * Files written before version 2 have no offset table and are decoded straight away.
+     *
+     * @param buffer The contents of a binary data file, typically mapped into memory.
+     * @param tasks The task list to load tasks into.
+     * @return The journal sequence covered by the snapshot.
+     * @throws IOException If the buffer is not a supported binary data file.
+     */
+    public static long decodeLazily(ByteBuffer buffer, TaskList tasks) throws IOException {
+        ByteBuffer header = buffer.duplicate();
+        short version = readVersion(header);
+        if (version < FIRST_INDEXED_VERSION) {
+            return decode(buffer, tasks);
+        }
+        long sequence = header.getLong();
+        int count = header.getInt();
+        int tablePosition = header.getInt();
+        tasks.addLazily(index -> decodeTaskAt(buffer, version,
+                buffer.getInt(tablePosition + index * Integer.BYTES)), count);
+        return sequence;
+    }
+
+    private static short readVersion(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE_V1 || !hasMagic(buffer)) {
+            throw new IOException("Not a binary data file.");
+        }
+        short version = buffer.getShort();
+        if (version > VERSION) {
+            throw new IOException("Unsupported data file version " + version + ".");
+        }
+        return version;
+    }
+
+    private static Task decodeTaskAt(ByteBuffer buffer, short version, int offset) {
+        try {
+            return decodeTask(buffer.duplicate().position(offset), version, NO_SCRATCH);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Task decodeTask(ByteBuffer buffer, short version, byte[] scratch) throws IOException {
+        byte type = buffer.get();
+        byte flags = buffer.get();
+        long id = version >= FIRST_ID_VERSION ? buffer.getLong() : 0;
+        String description = getString(buffer, scratch);
+        Task task;
+        switch (type) {
+        case 'T':
+            task = new ToDo(description);
+            break;
+        case 'D':
+            task = new Deadline(description, LocalDate.ofEpochDay(buffer.getInt()));
+            break;
+        case 'E':
+            String startTime = getString(buffer, scratch);
+            String endTime = getString(buffer, scratch);
+            task = new Event(description, startTime, endTime);
+            break;
+        case 'R':
+            task = decodeRecurrence(buffer, description, scratch);
+            break;
+        default:
+            throw new IOException("Unknown task type " + (char) type + ".");
+        }
+        if ((flags & FLAG_DONE) != 0) {
+            task.markAsDone();
+        }
+        task.setId(id);
+        if (version < FIRST_TAGGED_VERSION) {
+            task.moveTagsOutOfDescription();
+            return task;
+        }
+        short tagCount = buffer.getShort();
+        for (int i = 0; i < tagCount; i++) {
+            task.tag(getString(buffer, scratch));
+        }
+        return task;
+    }
+
+    private static Recurring decodeRecurrence(ByteBuffer buffer, String description, byte[] scratch)
+            throws IOException {
+        Recurrence recurrence;
+        try {
+            recurrence = Recurrence.parse(getString(buffer, scratch));
+        } catch (TheCountException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        LocalDate start = LocalDate.ofEpochDay(buffer.getInt());
+        int until = buffer.getInt();
+        Recurring recurring = new Recurring(description, recurrence, start,
+                until == NO_DATE ? null : LocalDate.ofEpochDay(until));
+        int doneCount = buffer.getInt();
+        for (int i = 0; i < doneCount; i++) {
+            recurring.markOccurrence(LocalDate.ofEpochDay(buffer.getInt()));
+        }
+        return recurring;
+    }
+
+    /**
+     * Reads a length-prefixed string, decoding straight from the buffer's backing array when it has one.
+     */
+    private static String getString(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getInt();
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
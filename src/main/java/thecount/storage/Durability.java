@@ -0,0 +1,31 @@
+package thecount.storage;
+
+/**
+ * Represents how hard Storage works to make a write survive a crash.
+ */
+public enum Durability {
+    /** Overwrites the data file in place and leaves flushing to the operating system. */
+    NONE,
+    /** Writes to a temporary file and atomically moves it into place, surviving a crash of the app. */
+    FLUSH,
+    /** Like {@link #FLUSH}, but also forces the data to disk, surviving a crash of the machine. */
+    FSYNC;
+
+    /**
+     * Parses a durability level, ignoring case.
+     *
+     * @param name The name of the durability level.
+     * @param fallback The level to return if the name is null or unknown.
+     * @return The durability level.
+     */
+    public static Durability parse(String name, Durability fallback) {
+        if (name == null) {
+            return fallback;
+        }
+        try {
+            return Durability.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package thecount.storage;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces bursts of changes into a single write on a background thread.
+ * The first change after a write schedules the next one a short window later;
+ * every change made inside that window is covered by the same write.
+ * With a deferred window, nothing is written until {@link #flush()} is called.
+ * Changes are marked while holding the task list's lock, and writes take that lock after the commit lock,
+ * so changes never write on the calling thread, even with a window of 0.
+ */
+public class GroupCommitWriter {
+    /** A commit window under which changes are only written when flushed. */
+    public static final long DEFERRED = -1;
+
+    private final Runnable commit;
+    private final long windowMillis;
+    private final ScheduledExecutorService executor;
+    private final Object commitLock = new Object();
+    private boolean isDirty;
+    private boolean isScheduled;
+
+    /**
+     * Constructs a GroupCommitWriter.
+     *
+     * @param commit The action that persists all changes made so far.
+     * @param windowMillis How long to wait for further changes before writing, 0 to write as soon as the
+     *     background thread can, or {@link #DEFERRED} to only write when flushed.
+     */
+    public GroupCommitWriter(Runnable commit, long windowMillis) {
+        assert windowMillis >= 0 || windowMillis == DEFERRED : "Commit window must not be negative";
+        this.commit = commit;
+        this.windowMillis = windowMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records that there are changes to persist, scheduling a write if none is pending.
+     */
+    public void markDirty() {
+        if (this.windowMillis == DEFERRED) {
+            synchronized (this) {
+                this.isDirty = true;
+            }
+            return;
+        }
+        synchronized (this) {
+            this.isDirty = true;
+            if (this.isScheduled) {
+                return;
+            }
+            this.isScheduled = true;
+        }
+        this.executor.schedule(this::commitScheduled, this.windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void commitScheduled() {
+        synchronized (this) {
+            this.isScheduled = false;
+        }
+        flush();
+    }
+
+    /**
+     * Persists any pending changes on the calling thread, waiting for a write already in progress.
+     */
+    public void flush() {
+        synchronized (this.commitLock) {
+            synchronized (this) {
+                if (!this.isDirty) {
+                    return;
+                }
+                this.isDirty = false;
+            }
+            try {
+                this.commit.run();
+            } catch (RuntimeException e) {
+                System.err.println(e);
+            }
+        }
+    }
+
+    /**
+     * Persists any pending changes and stops the background thread.
+     */
+    public void close() {
+        flush();
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,204 @@
+package thecount.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Represents an append-only log of changes made to the task list since the last snapshot.
+ * Each record is a single line of the form {@code seq | op | args...}.
+ */
+public class Journal {
+    private final File file;
+    private final File rotatedFile;
+    private final Durability durability;
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private long size;
+    private long sequence;
+
+    /**
+     * Constructs a Journal backed by the given file.
+     *
+     * @param path The path of the journal file.
+     * @param durability How hard each append works to survive a crash.
+     */
+    public Journal(String path, Durability durability) {
+        this.file = new File(path);
+        this.rotatedFile = new File(path + ".old");
+        this.durability = durability;
+    }
+
+    /**
+     * Replays the journal records with a sequence number above the given one.
+     * Records in a rotated journal left behind by an unfinished compaction are replayed first.
+     * A record torn by a crash mid-append, which has no line end or cannot be read, is cut off the journal
+     * along with anything after it, so records appended later follow the last complete one.
+     *
+     * @param afterSequence The sequence number already covered by the snapshot.
+     * @param handler The handler to apply each record to, without its sequence number.
+     * @throws IOException If the journal cannot be read.
+     */
+    public synchronized void replay(long afterSequence, Consumer<String> handler) throws IOException {
+        this.sequence = afterSequence;
+        replayFile(this.rotatedFile, afterSequence, handler);
+        replayFile(this.file, afterSequence, handler);
+        this.size = this.file.length();
+    }
+
+    private void replayFile(File source, long afterSequence, Consumer<String> handler) throws IOException {
+        if (!source.exists()) {
+            return;
+        }
+        long completeLength = 0;
+        try (InputStream input = new BufferedInputStream(new FileInputStream(source))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0;
+            int b;
+            while ((b = input.read()) >= 0) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                if (!replayLine(line.toString(StandardCharsets.UTF_8), afterSequence, handler)) {
+                    break;
+                }
+                completeLength = position;
+                line.reset();
+            }
+        }
+        if (completeLength < source.length()) {
+            // A torn record from a crash mid-append, nothing after it was acknowledged
+            try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(completeLength);
+            }
+        }
+    }
+
+    /**
+     * Replays a complete line of the journal.
+     *
+     * @return False if the line is not a record, as when a torn record was followed by more.
+     */
+    private boolean replayLine(String line, long afterSequence, Consumer<String> handler) {
+        int separator = line.indexOf(" | ");
+        if (separator < 0) {
+            return false;
+        }
+        long recordSequence;
+        try {
+            recordSequence = Long.parseLong(line.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (recordSequence > afterSequence) {
+            handler.accept(line.substring(separator + 3));
+            this.sequence = Math.max(this.sequence, recordSequence);
+        }
+        return true;
+    }
+
+    /**
+     * Appends a record to the journal buffer. Call {@link #flush()} to persist it.
+     *
+     * @param record The operation and its arguments, separated by {@code " | "}.
+     * @return The length of the line appended, which is its size in bytes unless it has non-ASCII characters.
+     * @throws IOException If the record cannot be written.
+     */
+    public synchronized int append(String record) throws IOException {
+        if (this.writer == null) {
+            this.output = new FileOutputStream(this.file, true);
+            this.writer = new BufferedWriter(new OutputStreamWriter(this.output, StandardCharsets.UTF_8));
+        }
+        this.sequence++;
+        String line = this.sequence + " | " + record + "\n";
+        this.writer.write(line);
+        this.size += line.length();
+        return line.length();
+    }
+
+    /**
+     * Flushes appended records to the operating system, also forcing them to disk under {@link Durability#FSYNC}.
+     * Under {@link Durability#NONE} records are left in the buffer until it fills or the journal is closed.
+     *
+     * @throws IOException If the records cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        if (this.writer == null || this.durability == Durability.NONE) {
+            return;
+        }
+        this.writer.flush();
+        if (this.durability == Durability.FSYNC) {
+            this.output.getChannel().force(false);
+        }
+    }
+
+    /**
+     * Moves the current journal aside so that new records go to a fresh file.
+     * The rotated journal must be discarded with {@link #discardRotated()} once a snapshot covering it is written.
+     *
+     * @throws IOException If the journal cannot be moved.
+     */
+    public synchronized void rotate() throws IOException {
+        close();
+        if (this.file.exists() && !this.file.renameTo(this.rotatedFile)) {
+            throw new IOException("Unable to rotate journal " + this.file);
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Deletes the journal moved aside by the last rotation.
+     */
+    public synchronized void discardRotated() {
+        this.rotatedFile.delete();
+    }
+
+    /**
+     * Deletes the journal and any rotated journal.
+     *
+     * @throws IOException If the journal cannot be closed.
+     */
+    public synchronized void clear() throws IOException {
+        close();
+        this.file.delete();
+        discardRotated();
+        this.size = 0;
+    }
+
+    /**
+     * Closes the underlying file, if open.
+     *
+     * @throws IOException If the journal cannot be closed.
+     */
+    public synchronized void close() throws IOException {
+        if (this.writer != null) {
+            this.writer.close();
+            this.writer = null;
+            this.output = null;
+        }
+    }
+
+    public synchronized boolean hasRotated() {
+        return this.rotatedFile.exists();
+    }
+
+    public synchronized long size() {
+        return this.size;
+    }
+
+    public synchronized long getSequence() {
+        return this.sequence;
+    }
+}
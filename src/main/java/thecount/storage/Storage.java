@@ -1,23 +1,81 @@
 package thecount.storage;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Scanner;
 
 import thecount.exception.TheCountException;
+import thecount.metrics.Metrics;
 import thecount.task.Deadline;
 import thecount.task.Event;
+import thecount.task.Recurrence;
+import thecount.task.Recurring;
+import thecount.task.StoredFields;
+import thecount.task.Task;
 import thecount.task.TaskList;
 import thecount.task.ToDo;
+import thecount.ui.PrintList;
 
 /**
  * Manages the loading and writing of tasks to a file.
+ * Tasks are stored as text or in a compact binary format; a data file in the other format is migrated on load.
+ * Each task list has its own data file, journal and history, named after the list, e.g. {@code team.txt}.
+ * A binary data file can be memory-mapped so that tasks are only decoded when first used.
+ * In journaled mode, each change is appended to a journal and the data file is only rewritten
+ * once the journal grows past the configured threshold.
+ * Unless durability is {@link Durability#NONE}, the data file is replaced atomically so a crash
+ * mid-write never leaves it truncated.
+ * Changes are persisted by a background writer that groups all changes made within the commit window
+ * into one write; callers must {@link #flush()} before exiting. The writer writes a snapshot of the task list,
+ * so changes carry on while it writes.
+ * Each change is also remembered with the records that reverse it, so it can be undone and redone,
+ * and this history can be saved beside the data file.
+ * Loading, each file written and the bytes written are counted in {@link Metrics}.
  */
 public class Storage {
-    private static final String DATAFILE_PATH = "./data/the-count.txt";
-    private static final String DIR_PATH = "./data";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String HISTORY_EXTENSION = ".history";
+    private static final String SEQUENCE_PREFIX = "#";
+    private static final String VERSION_PREFIX = "#v";
+    private static final int TEXT_VERSION = 3;
+    private static final int FIRST_TAGGED_TEXT_VERSION = 2;
+    private static final int FIRST_ESCAPED_TEXT_VERSION = 3;
+    private static final String ID_PREFIX = "@";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String MIGRATED_SUFFIX = ".migrated";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final StorageConfig config;
+    private final TaskList tasks;
+    private final Journal journal;
+    private final GroupCommitWriter writer;
+    private final UndoHistory history;
+    private final Path directory;
+    private final Path dataPath;
+    private ByteBuffer writeBuffer;
+    private long snapshotSequence;
+    private Path migratedPath;
 
     /**
      * Constructs a Storage object.
@@ -26,7 +84,29 @@ public class Storage {
      * @param tasks The task list to load tasks into.
      */
     public Storage(TaskList tasks) {
+        this(tasks, StorageConfig.fromSystemProperties());
+    }
+
+    /**
+     * Constructs a Storage object with the given settings.
+     * Load tasks from the data file, replaying any journaled changes on top of it.
+     *
+     * @param tasks The task list to load tasks into.
+     * @param config The storage settings.
+     */
+    public Storage(TaskList tasks, StorageConfig config) {
+        this.config = config;
+        this.tasks = tasks;
+        this.directory = Paths.get(config.getDirectory());
+        this.dataPath = this.directory.resolve(config.getFormat().getFileName(config.getListName()));
+        this.journal = new Journal(this.directory.resolve(config.getListName() + JOURNAL_EXTENSION).toString(),
+                config.getDurability());
+        this.writer = new GroupCommitWriter(this::commit, config.getCommitWindowMillis());
+        this.history = new UndoHistory(config.getUndoDepth());
+        Metrics.Load loading = Metrics.get().startLoad();
         load(tasks);
+        loadHistory();
+        loading.finish(tasks.length());
     }
 
     /**
@@ -38,12 +118,13 @@ public class Storage {
     public void load(TaskList tasks) {
         createDir();
         createFile(tasks);
+        replayJournal(tasks);
+        migrate(tasks);
     }
 
     private void createDir() {
         try {
-            File directory = new File(DIR_PATH);
-            if (directory.mkdirs()) {
+            if (this.directory.toFile().mkdirs()) {
                 System.out.println("Directory created successfully.");
             } else {
                 System.out.println("Directory exists.");
@@ -56,19 +137,82 @@ public class Storage {
     private void createFile(TaskList tasks) {
         // File creation
         try {
-            File file = new File(DATAFILE_PATH);
-            if (!file.exists()) {
-                file.createNewFile();
+            Path source = findDataFile();
+            if (source == null) {
+                Files.createFile(this.dataPath);
                 System.out.println("File created.");
+                return;
+            }
+            System.out.println("File already exists.");
+            if (BinaryFormat.isBinary(source) && this.config.isLazy()) {
+                mapBinaryFile(source, tasks);
+            } else if (BinaryFormat.isBinary(source)) {
+                readBinaryFile(source, tasks);
             } else {
-                System.out.println("File already exists.");
+                readFile(source.toFile(), tasks);
+            }
+            boolean isBinary = this.config.getFormat() == StorageFormat.BINARY;
+            if (!source.equals(this.dataPath) || BinaryFormat.isBinary(source) != isBinary) {
+                this.migratedPath = source;
             }
-            readFile(file, tasks);
         } catch (Exception e) {
             System.err.println(e);
         }
     }
 
+    /**
+     * Finds the data file to load, preferring the one in the configured format.
+     *
+     * @return The data file, or null if there is none yet.
+     */
+    private Path findDataFile() {
+        if (Files.exists(this.dataPath)) {
+            return this.dataPath;
+        }
+        for (StorageFormat format : StorageFormat.values()) {
+            Path path = this.directory.resolve(format.getFileName(this.config.getListName()));
+            if (Files.exists(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rewrites a data file loaded in the other format in the configured one.
+     * A data file at another path is kept beside the new one as a backup.
+     */
+    private void migrate(TaskList tasks) {
+        if (this.migratedPath == null) {
+            return;
+        }
+        try {
+            writeSnapshot(captureSnapshot(tasks.getTasks(), this.journal.getSequence()));
+            if (!this.migratedPath.equals(this.dataPath)) {
+                Files.move(this.migratedPath, this.migratedPath.resolveSibling(
+                        this.migratedPath.getFileName() + MIGRATED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            }
+            System.out.println("Data file migrated to " + this.config.getFormat().name().toLowerCase() + ".");
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+        this.migratedPath = null;
+    }
+
+    private void replayJournal(TaskList tasks) {
+        try {
+            this.journal.replay(this.snapshotSequence, record -> applyRecord(record, tasks));
+            boolean hasReplayed = this.journal.getSequence() > this.snapshotSequence;
+            if (this.journal.hasRotated() || (hasReplayed && !this.config.isJournaled())) {
+                // Fold changes journaled by an earlier session back into the data file
+                write(tasks);
+                this.journal.clear();
+            }
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+    }
+
     /**
      * Writes tasks from the task list to the data file.
      *
@@ -76,67 +220,655 @@ public class Storage {
      */
     public void write(TaskList tasks) {
         assert tasks != null : "TaskList (tasks) must not be null";
+        long sequence = this.config.isJournaled() ? this.journal.getSequence() : 0;
         try {
-            FileWriter fw = new FileWriter(DATAFILE_PATH);
-            fw.write(tasks.getListToWrite());
-            fw.close();
-        } catch (Exception e) {
+            writeSnapshot(captureSnapshot(tasks.getTasks(), sequence));
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+    }
+
+    /**
+     * Writes tasks from the task list to a text file, whatever the configured format.
+     *
+     * @param path The path of the text file.
+     * @return The number of tasks written.
+     * @throws IOException If the file cannot be written.
+     */
+    public int exportText(String path) throws IOException {
+        List<Task> snapshot = this.tasks.getTasks();
+        writeAtomically(Paths.get(path), textSnapshotOf(snapshot, 0));
+        return snapshot.size();
+    }
+
+    /**
+     * Gets the path {@link #exportText(String)} writes to when no other is given: a text file beside the data file,
+     * named after the list, e.g. {@code data/team-export.txt}.
+     *
+     * @return The default export path.
+     */
+    public String getExportPath() {
+        return this.directory.resolve(StorageFormat.TEXT.getFileName(this.config.getListName()
+                + Workspaces.EXPORT_SUFFIX)).toString();
+    }
+
+    /**
+     * Prepares tasks to be written in the configured format.
+     *
+     * @param tasks A snapshot of the task list, from {@link TaskList#getTasks()}.
+     */
+    private Snapshot captureSnapshot(List<Task> tasks, long sequence) {
+        if (this.config.getFormat() == StorageFormat.BINARY) {
+            // Only written by writeSnapshot, which holds this storage's lock while it uses the buffer
+            return channel -> {
+                if (this.writeBuffer == null) {
+                    this.writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                }
+                BinaryFormat.encode(tasks, sequence, channel, this.writeBuffer);
+            };
+        }
+        return textSnapshotOf(tasks, sequence);
+    }
+
+    /**
+     * Prepares tasks to be streamed out as text, one line at a time.
+     */
+    private Snapshot textSnapshotOf(List<Task> tasks, long sequence) {
+        return channel -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(VERSION_PREFIX + TEXT_VERSION + "\n");
+            if (sequence > 0) {
+                writer.write(SEQUENCE_PREFIX + sequence + "\n");
+            }
+            new PrintList(tasks).writeListTo(writer);
+            writer.flush();
+        };
+    }
+
+    private synchronized void writeSnapshot(Snapshot snapshot) throws IOException {
+        if (this.config.getDurability() == Durability.NONE) {
+            writeTo(this.dataPath, snapshot);
+            return;
+        }
+        writeAtomically(this.dataPath, snapshot);
+    }
+
+    private void writeAtomically(Path target, Snapshot snapshot) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        writeTo(temp, snapshot);
+        moveIntoPlace(temp, target);
+    }
+
+    /**
+     * Streams the snapshot into the given file through its channel,
+     * forcing it to disk if the durability level asks for it.
+     */
+    private void writeTo(Path path, Snapshot snapshot) throws IOException {
+        Metrics.Write write = Metrics.get().startWrite(path.getFileName().toString());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            snapshot.writeTo(channel);
+            if (this.config.getDurability() == Durability.FSYNC) {
+                channel.force(true);
+            }
+            write.finish(channel.size());
+        }
+    }
+
+    /**
+     * Replaces the target with the fully written temporary file, so readers see either the old or the new snapshot.
+     */
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (this.config.getDurability() == Durability.FSYNC) {
+            forceDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    private void forceDirectory(Path directory) {
+        // Persists the rename itself; not every platform allows opening a directory, so this is best effort
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // The snapshot itself is already on disk
+        }
+    }
+
+    /**
+     * Records that a task was added to the end of the list.
+     *
+     * @param task The task that was added.
+     */
+    public void logAdd(Task task) {
+        record("A | " + encodeTask(task));
+        // Adding the task again must keep its id, so redoing puts it back rather than adding it
+        this.history.addRedo("P | " + encodeTask(task));
+        this.history.addUndo("X | " + ID_PREFIX + task.getId());
+    }
+
+    /**
+     * Records that tasks were marked as done.
+     *
+     * @param ids The ids of the tasks.
+     */
+    public void logMark(long... ids) {
+        recordUndoable("M | " + formatIds(ids));
+    }
+
+    /**
+     * Records that tasks were marked as not done.
+     *
+     * @param ids The ids of the tasks.
+     */
+    public void logUnmark(long... ids) {
+        recordUndoable("U | " + formatIds(ids));
+    }
+
+    /**
+     * Records that one occurrence of a recurring task was marked as done or not done.
+     *
+     * @param id The id of the recurring task.
+     * @param date The date of the occurrence.
+     * @param isDone Specifies if the occurrence was marked as done.
+     */
+    public void logOccurrence(long id, LocalDate date, boolean isDone) {
+        recordUndoable("O | " + ID_PREFIX + id + " | " + date + " | " + (isDone ? 1 : 0));
+    }
+
+    /**
+     * Records that tasks were tagged.
+     *
+     * @param tag The tags added to the tasks.
+     * @param ids The ids of the tasks.
+     */
+    public void logTag(String tag, long... ids) {
+        recordUndoable("G | " + formatIds(ids) + " | " + StoredFields.escape(tag));
+    }
+
+    /**
+     * Records that tags were removed from a task.
+     *
+     * @param id The id of the task.
+     * @param tag The tags removed from the task.
+     */
+    public void logUntag(long id, String tag) {
+        recordUndoable("R | " + ID_PREFIX + id + " | " + StoredFields.escape(tag));
+    }
+
+    /**
+     * Records that tasks were deleted.
+     *
+     * @param ids The ids of the tasks.
+     */
+    public void logDelete(long... ids) {
+        recordUndoable("X | " + formatIds(ids));
+    }
+
+    private static String formatIds(long[] ids) {
+        StringBuilder formatted = new StringBuilder();
+        for (long id : ids) {
+            if (formatted.length() > 0) {
+                formatted.append(',');
+            }
+            formatted.append(ID_PREFIX).append(id);
+        }
+        return formatted.toString();
+    }
+
+    /**
+     * Starts remembering a change, so that it can be undone.
+     * The records logged until {@link #endChange()} make up the change.
+     *
+     * @param label What the change was, shown when it is undone or redone.
+     */
+    public void beginChange(String label) {
+        this.history.begin(label);
+    }
+
+    /**
+     * Remembers the tasks as they are before a change, so that undoing the change puts them back like this.
+     * Must be called before the tasks are changed or deleted.
+     *
+     * @param tasks The tasks about to change.
+     */
+    public void rememberForUndo(List<Task> tasks) {
+        for (Task task : tasks) {
+            this.history.addUndo("P | " + encodeTask(task));
+        }
+    }
+
+    /**
+     * Finishes remembering a change. A change that logged nothing is not remembered.
+     */
+    public void endChange() {
+        this.history.end();
+    }
+
+    /**
+     * Reverses the most recent change not yet undone.
+     * Must be called while holding the task list's lock.
+     *
+     * @return What the change was, or null if there is nothing to undo.
+     */
+    public String undo() {
+        UndoHistory.Change change = this.history.undo();
+        if (change == null) {
+            return null;
+        }
+        List<String> records = new ArrayList<>(change.getUndo());
+        Collections.reverse(records);
+        applyRecords(records);
+        records.forEach(this::record);
+        return change.getLabel();
+    }
+
+    /**
+     * Makes the most recently undone change again.
+     * Must be called while holding the task list's lock.
+     *
+     * @return What the change was, or null if there is nothing to redo.
+     */
+    public String redo() {
+        UndoHistory.Change change = this.history.redo();
+        if (change == null) {
+            return null;
+        }
+        applyRecords(change.getRedo());
+        change.getRedo().forEach(this::record);
+        return change.getLabel();
+    }
+
+    private void recordUndoable(String record) {
+        record(record);
+        this.history.addRedo(record);
+    }
+
+    /**
+     * Records a change and schedules it to be persisted.
+     * Must be called while holding the task list's lock, right after the change is made.
+     */
+    private void record(String record) {
+        if (this.config.isJournaled()) {
+            try {
+                Metrics.get().recordJournalAppend(this.journal.append(record));
+            } catch (IOException e) {
+                System.err.println(e);
+            }
+        }
+        this.writer.markDirty();
+    }
+
+    /**
+     * Persists all changes recorded so far. Runs on the background writer thread.
+     */
+    private void commit() {
+        try {
+            if (this.config.isJournaled()) {
+                commitJournal();
+            } else {
+                writeSnapshot(captureSnapshot(this.tasks.getTasks(), 0));
+            }
+            if (this.config.isUndoPersisted()) {
+                writeHistory();
+            }
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+    }
+
+    private void commitJournal() throws IOException {
+        this.journal.flush();
+        if (this.journal.size() > this.config.getCompactionThreshold()) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes a fresh snapshot and discards the journal it covers.
+     * The snapshot is taken together with the journal rotation so no change can fall between them,
+     * but is written without holding up further changes.
+     */
+    private void compact() throws IOException {
+        Snapshot snapshot;
+        synchronized (this.tasks) {
+            this.journal.rotate();
+            snapshot = captureSnapshot(this.tasks.getTasks(), this.journal.getSequence());
+        }
+        writeSnapshot(snapshot);
+        this.journal.discardRotated();
+    }
+
+    private void writeHistory() throws IOException {
+        StringWriter content = new StringWriter();
+        synchronized (this.tasks) {
+            this.history.writeTo(content);
+        }
+        writeAtomically(this.directory.resolve(this.config.getListName() + HISTORY_EXTENSION), channel -> {
+            Channels.newOutputStream(channel).write(content.toString().getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    private void loadHistory() {
+        Path path = this.directory.resolve(this.config.getListName() + HISTORY_EXTENSION);
+        if (!this.config.isUndoPersisted() || !Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            this.history.readFrom(reader);
+        } catch (IOException | NumberFormatException e) {
             System.err.println(e);
+            this.history.clear();
+        }
+    }
+
+    /**
+     * Persists any pending changes, waiting for a write already in progress.
+     */
+    public void flush() {
+        this.writer.flush();
+    }
+
+    public StorageConfig getConfig() {
+        return this.config;
+    }
+
+    /**
+     * Persists any pending changes and closes the journal.
+     */
+    public void close() {
+        this.writer.close();
+        try {
+            this.journal.close();
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+    }
+
+    /**
+     * Represents the content of a data file, written out on demand.
+     */
+    private interface Snapshot {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Reads tasks from a binary data file to the task list.
+     *
+     * @param path The data file to read from.
+     * @param tasks The task list containing tasks to be written to.
+     */
+    private void readBinaryFile(Path path, TaskList tasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            this.snapshotSequence = BinaryFormat.decode(buffer.flip(), tasks);
+        }
+    }
+
+    /**
+     * Maps a binary data file into memory and adds its tasks to the task list without decoding them.
+     * The mapping stays valid after the file is replaced by a newer snapshot.
+     *
+     * @param path The data file to map.
+     * @param tasks The task list containing tasks to be written to.
+     */
+    private void mapBinaryFile(Path path, TaskList tasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            this.snapshotSequence = BinaryFormat.decodeLazily(buffer, tasks);
         }
     }
 
     /**
      * Reads tasks from the data file to the task list.
+     * Files from version 2 start with a version line, e.g. {@code #v3}; files without one are read as version 1.
+     * From version 2, the tags field is always written; from version 3, a {@code |} within a field is escaped.
      *
      * @param file The data file to read from.
      * @param tasks The task list containing tasks to be written to.
      */
-    private void readFile(File file, TaskList tasks) throws FileNotFoundException {
-        Scanner s = new Scanner(file);
+    private void readFile(File file, TaskList tasks) throws IOException {
+        Scanner s = new Scanner(file, StandardCharsets.UTF_8);
+        int version = 1;
         while (s.hasNext()) {
             String line = s.nextLine();
-            processLine(line, tasks);
+            if (line.startsWith(VERSION_PREFIX)) {
+                version = Integer.parseInt(line.substring(VERSION_PREFIX.length()).trim());
+                continue;
+            }
+            if (line.startsWith(SEQUENCE_PREFIX)) {
+                this.snapshotSequence = Long.parseLong(line.substring(SEQUENCE_PREFIX.length()).trim());
+                continue;
+            }
+            processLine(line, tasks, version);
         }
     }
 
-    private void handleTaskDone(TaskList tasks, String isTaskDone, char index) {
-        if (isTaskDone.equals("1")) {
-            try {
-                tasks.markTask(index - '0', false);
-            } catch (TheCountException e) {
-                System.err.println(e);
+    /**
+     * Adds the task stored in a line of the data file, keeping the id in its first field.
+     * Files written before tasks had ids hold 1-based positions there, which then serve as the ids.
+     */
+    private void processLine(String line, TaskList tasks, int version) {
+        String[] parts = version < FIRST_ESCAPED_TEXT_VERSION ? line.split("\\|") : StoredFields.split(line);
+        Task task = decodeTask(parts, 1, version < FIRST_TAGGED_TEXT_VERSION);
+        if (task == null) {
+            return;
+        }
+        try {
+            task.setId(Long.parseLong(parts[0].trim()));
+        } catch (NumberFormatException e) {
+            // The task list gives the task a new id
+        }
+        tasks.add(task);
+    }
+
+    /**
+     * Finds the position of the task a journal record refers to, by id ({@code @12}) or,
+     * in records written before tasks had ids, by position.
+     */
+    private int resolvePosition(String field, TaskList tasks) throws TheCountException {
+        String reference = field.trim();
+        if (reference.startsWith(ID_PREFIX)) {
+            return tasks.positionOf(Long.parseLong(reference.substring(ID_PREFIX.length())));
+        }
+        return Integer.parseInt(reference);
+    }
+
+    /**
+     * Finds the positions of the tasks a journal record refers to, e.g. {@code @3,@7,@9}, in increasing order.
+     */
+    private int[] resolvePositions(String field, TaskList tasks) throws TheCountException {
+        String[] references = field.split(",");
+        int[] positions = new int[references.length];
+        for (int i = 0; i < references.length; i++) {
+            positions[i] = resolvePosition(references[i], tasks);
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    private void applyRecord(String record, TaskList tasks) {
+        String[] parts = StoredFields.split(record);
+        try {
+            switch (parts[0].trim()) {
+            case "A":
+                // Records written before tasks had ids start with the task type instead of the id
+                boolean hasId = parts[1].trim().matches("\\d+");
+                Task task = decodeTask(parts, hasId ? 2 : 1, !hasId);
+                if (task != null) {
+                    if (hasId) {
+                        task.setId(Long.parseLong(parts[1].trim()));
+                    }
+                    tasks.add(task);
+                }
+                break;
+            case "M":
+                tasks.markTasks(resolvePositions(parts[1], tasks));
+                break;
+            case "U":
+                tasks.unmarkTasks(resolvePositions(parts[1], tasks));
+                break;
+            case "O":
+                tasks.markOccurrence(resolvePosition(parts[1], tasks), LocalDate.parse(parts[2].trim()),
+                        parts[3].trim().equals("1"));
+                break;
+            case "G":
+                tasks.tagTasks(resolvePositions(parts[1], tasks), parts[2].trim());
+                break;
+            case "R":
+                tasks.untagTask(resolvePosition(parts[1], tasks), parts[2].trim());
+                break;
+            case "P":
+                Task putBack = decodePutBack(parts);
+                if (putBack != null) {
+                    tasks.putTasks(List.of(putBack));
+                }
+                break;
+            case "X":
+                int[] positions = resolvePositions(parts[1], tasks);
+                if (positions.length == 1) {
+                    tasks.deleteTask(positions[0]);
+                } else {
+                    tasks.deleteTasks(positions);
+                }
+                break;
+            default:
+                break;
             }
+        } catch (TheCountException | NumberFormatException | ArrayIndexOutOfBoundsException
+                | DateTimeParseException e) {
+            System.err.println(e);
         }
     }
 
-    private void processLine(String line, TaskList tasks) {
-        String[] parts = line.split("\\|");
-        char index = parts[0].charAt(0);
-        String taskType = parts[1].trim();
-        String isTaskDone = parts[2].trim();
-        String info = parts[3].trim();
+    /**
+     * Builds the task a {@code P} record puts back, keeping its id.
+     */
+    private Task decodePutBack(String[] parts) {
+        Task task = decodeTask(parts, 2, false);
+        if (task != null) {
+            task.setId(Long.parseLong(parts[1].trim()));
+        }
+        return task;
+    }
+
+    /**
+     * Applies records in order, putting back the tasks of consecutive {@code P} records in one pass.
+     */
+    private void applyRecords(List<String> records) {
+        List<Task> putBack = new ArrayList<>();
+        for (String record : records) {
+            if (record.startsWith("P |")) {
+                Task task = decodePutBack(StoredFields.split(record));
+                if (task != null) {
+                    putBack.add(task);
+                }
+                continue;
+            }
+            if (!putBack.isEmpty()) {
+                this.tasks.putTasks(putBack);
+                putBack.clear();
+            }
+            applyRecord(record, this.tasks);
+        }
+        if (!putBack.isEmpty()) {
+            this.tasks.putTasks(putBack);
+        }
+    }
+
+    /**
+     * Encodes a task as its id, type, status, fields and tags, separated by {@code |}, with any {@code |}
+     * within a field escaped, as in a line of the text data file.
+     */
+    private String encodeTask(Task task) {
+        return task.getId() + " | " + task.getType() + " | " + (task.isDone() ? 1 : 0)
+                + " | " + task.encodeFields() + " | " + StoredFields.escape(task.formatTags());
+    }
+
+    /**
+     * Builds a task from its stored fields.
+     * Tags are stored in a field after the task's other fields, which is written even when the task has none.
+     * Lines written before tags were kept apart may instead have tags at the end of the description,
+     * which are moved into the task's tags.
+     *
+     * @param parts The fields of the stored line.
+     * @param start The position of the task type field.
+     * @param isLegacy Specifies if the line may be from before tags were kept apart from the description.
+     * @return The task, or null if the task type is unknown or its date is invalid.
+     */
+    private Task decodeTask(String[] parts, int start, boolean isLegacy) {
+        Task task = decodeFields(parts, start);
+        if (task == null) {
+            return null;
+        }
+        if (parts[start + 1].trim().equals("1")) {
+            task.markAsDone();
+        }
+        int tagsField = start + 3 + countExtraFields(task);
+        if (tagsField < parts.length) {
+            task.parseTags(parts[tagsField]);
+        } else if (isLegacy) {
+            task.moveTagsOutOfDescription();
+        }
+        return task;
+    }
+
+    private static int countExtraFields(Task task) {
+        if (task instanceof Deadline) {
+            return 1;
+        } else if (task instanceof Event) {
+            return 2;
+        } else if (task instanceof Recurring) {
+            return 4;
+        }
+        return 0;
+    }
+
+    private Task decodeFields(String[] parts, int start) {
+        String taskType = parts[start].trim();
+        String info = parts[start + 2].trim();
 
         switch (taskType) {
         case "T":
-            tasks.add(new ToDo(info));
-            break;
+            return new ToDo(info);
         case "D":
-            String deadlineTime = parts[4].trim();
+            String deadlineTime = parts[start + 3].trim();
             try {
-                tasks.add(new Deadline(info, deadlineTime));
+                return new Deadline(info, deadlineTime);
             } catch (DateTimeParseException e) {
                 System.out.println(e);
+                return null;
             }
-            break;
         case "E":
-            String[] time = parts[4].trim().split("-");
+            if (parts.length > start + 4) {
+                return new Event(info, parts[start + 3].trim(), parts[start + 4].trim());
+            }
+            // Older files joined the start and end times with a dash
+            String[] time = parts[start + 3].trim().split("-", 2);
             String fromTime = time[0];
             String toTime = time[1];
-            tasks.add(new Event(info, fromTime, toTime));
-            break;
+            return new Event(info, fromTime, toTime);
+        case "R":
+            try {
+                Recurring recurring = new Recurring(info, Recurrence.parse(parts[start + 3]),
+                        LocalDate.parse(parts[start + 4].trim()), Recurring.parseUntil(parts[start + 5]));
+                recurring.parseDoneDates(parts[start + 6]);
+                return recurring;
+            } catch (TheCountException | DateTimeParseException e) {
+                System.out.println(e);
+                return null;
+            }
         default:
-            break;
+            return null;
         }
-        handleTaskDone(tasks, isTaskDone, index);
     }
 }
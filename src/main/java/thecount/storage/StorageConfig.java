@@ -0,0 +1,259 @@
+package thecount.storage;
+
+/**
+ * Holds the settings that control how tasks are persisted.
+ * Settings can be supplied as system properties, e.g. {@code -Dthecount.journal=true}.
+ */
+public class StorageConfig {
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 64 * 1024;
+    private static final long DEFAULT_COMMIT_WINDOW_MILLIS = 50;
+    private static final String DEFAULT_DIRECTORY = "./data";
+    private static final int DEFAULT_UNDO_DEPTH = 50;
+    private static final String DEFAULT_LIST_NAME = "the-count";
+    private static final long DEFAULT_LIST_BUDGET_MEGABYTES = 64;
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private boolean isJournaled;
+    private long compactionThreshold;
+    private Durability durability;
+    private long commitWindowMillis;
+    private StorageFormat format;
+    private boolean isLazy;
+    private String directory;
+    private int undoDepth;
+    private boolean isUndoPersisted;
+    private String listName;
+    private long listBudget;
+
+    /**
+     * Constructs a StorageConfig with the default settings.
+     * Changes rewrite the data file, which is atomically replaced but not forced to disk,
+     * and changes made within 50 ms of each other share one write. Tasks are stored as text in {@code ./data}.
+     * The last 50 changes can be undone until the program exits.
+     * Tasks go in the list named {@code the-count}, and lists not in use are unloaded once all loaded lists
+     * take an estimated 64 MB.
+     */
+    public StorageConfig() {
+        this.isJournaled = false;
+        this.compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+        this.durability = Durability.FLUSH;
+        this.commitWindowMillis = DEFAULT_COMMIT_WINDOW_MILLIS;
+        this.format = StorageFormat.TEXT;
+        this.isLazy = false;
+        this.directory = DEFAULT_DIRECTORY;
+        this.undoDepth = DEFAULT_UNDO_DEPTH;
+        this.isUndoPersisted = false;
+        this.listName = DEFAULT_LIST_NAME;
+        this.listBudget = DEFAULT_LIST_BUDGET_MEGABYTES * BYTES_PER_MEGABYTE;
+    }
+
+    private StorageConfig copy() {
+        StorageConfig copy = new StorageConfig();
+        copy.isJournaled = this.isJournaled;
+        copy.compactionThreshold = this.compactionThreshold;
+        copy.durability = this.durability;
+        copy.commitWindowMillis = this.commitWindowMillis;
+        copy.format = this.format;
+        copy.isLazy = this.isLazy;
+        copy.directory = this.directory;
+        copy.undoDepth = this.undoDepth;
+        copy.isUndoPersisted = this.isUndoPersisted;
+        copy.listName = this.listName;
+        copy.listBudget = this.listBudget;
+        return copy;
+    }
+
+    /**
+     * Reads the storage settings from system properties, falling back to defaults.
+     *
+     * @return The storage settings.
+     */
+    public static StorageConfig fromSystemProperties() {
+        StorageConfig defaults = new StorageConfig();
+        return defaults
+                .withJournal(Boolean.getBoolean("thecount.journal"),
+                        Long.getLong("thecount.journal.threshold", DEFAULT_COMPACTION_THRESHOLD))
+                .withDurability(Durability.parse(System.getProperty("thecount.durability"), defaults.durability))
+                .withCommitWindow(Long.getLong("thecount.commit.window", DEFAULT_COMMIT_WINDOW_MILLIS))
+                .withFormat(StorageFormat.parse(System.getProperty("thecount.format"), defaults.format))
+                .withLazyLoading(Boolean.getBoolean("thecount.lazy"))
+                .withDirectory(System.getProperty("thecount.dir", DEFAULT_DIRECTORY))
+                .withUndo(Math.max(Integer.getInteger("thecount.undo.depth", DEFAULT_UNDO_DEPTH), 0),
+                        Boolean.getBoolean("thecount.undo.persist"))
+                .withListName(System.getProperty("thecount.list", DEFAULT_LIST_NAME))
+                .withListBudget(Math.max(Long.getLong("thecount.lists.budget", DEFAULT_LIST_BUDGET_MEGABYTES), 0)
+                        * BYTES_PER_MEGABYTE);
+    }
+
+    /**
+     * Returns a copy of these settings with the given journal settings.
+     *
+     * @param isJournaled Specifies if changes are appended to a journal instead of rewriting the data file.
+     * @param compactionThreshold The journal size in bytes after which a fresh snapshot is written.
+     * @return The updated settings.
+     */
+    public StorageConfig withJournal(boolean isJournaled, long compactionThreshold) {
+        assert compactionThreshold > 0 : "Compaction threshold must be positive";
+        StorageConfig copy = copy();
+        copy.isJournaled = isJournaled;
+        copy.compactionThreshold = compactionThreshold;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of these settings with the given durability level.
+     *
+     * @param durability How hard each write works to survive a crash.
+     * @return The updated settings.
+     */
+    public StorageConfig withDurability(Durability durability) {
+        assert durability != null : "Durability must not be null";
+        StorageConfig copy = copy();
+        copy.durability = durability;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of these settings with the given commit window.
+     *
+     * @param commitWindowMillis How long to gather changes before writing them, 0 to write straight after each change,
+     *     or {@link GroupCommitWriter#DEFERRED} to only write them when storage is flushed.
+     * @return The updated settings.
+     */
+    public StorageConfig withCommitWindow(long commitWindowMillis) {
+        assert commitWindowMillis >= 0 || commitWindowMillis == GroupCommitWriter.DEFERRED
+                : "Commit window must not be negative";
+        StorageConfig copy = copy();
+        copy.commitWindowMillis = commitWindowMillis;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of these settings with the given data file format.
+     *
+     * @param format The format to store tasks in.
+     * @return The updated settings.
+     */
+    public StorageConfig withFormat(StorageFormat format) {
+        assert format != null : "Format must not be null";
+        StorageConfig copy = copy();
+        copy.format = format;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of these settings with lazy loading switched on or off.
+     * Lazy loading maps a binary data file into memory and only decodes each task when it is first used.
+     * It implies the journal, as rewriting the data file after each change would decode every task.
+     * Commands that look through the whole list, such as {@code find}, {@code @id} lookups and undo,
+     * and each compaction of the journal, still decode every task.
+     *
+     * @param isLazy Specifies if tasks are loaded lazily.
+     * @return The updated settings.
+     */
+    public StorageConfig withLazyLoading(boolean isLazy) {
+        StorageConfig copy = copy();
+        copy.isLazy = isLazy;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of these settings with the given data directory.
+     *
+     * @param directory The directory holding the data file and journal.
+     * @return The updated settings.
+     */
+    public StorageConfig withDirectory(String directory) {
+        assert directory != null : "Directory must not be null";
+        StorageConfig copy = copy();
+        copy.directory = directory;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of these settings with the given undo settings.
+     *
+     * @param undoDepth How many changes can be undone, or 0 to turn undo off.
+     * @param isUndoPersisted Specifies if the changes that can be undone are saved beside the data file,
+     *     so they can still be undone after a restart.
+     * @return The updated settings.
+     */
+    public StorageConfig withUndo(int undoDepth, boolean isUndoPersisted) {
+        assert undoDepth >= 0 : "Undo depth must not be negative";
+        StorageConfig copy = copy();
+        copy.undoDepth = undoDepth;
+        copy.isUndoPersisted = isUndoPersisted;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of these settings for the task list with the given name.
+     * Each list keeps its data file, journal and history in the data directory, named after the list.
+     *
+     * @param listName The name of the task list.
+     * @return The updated settings.
+     */
+    public StorageConfig withListName(String listName) {
+        assert listName != null && !listName.isEmpty() : "List name must not be empty";
+        StorageConfig copy = copy();
+        copy.listName = listName;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of these settings with the given budget for the task lists kept in memory.
+     *
+     * @param listBudget The estimated bytes the loaded task lists may take before those not in use are unloaded.
+     * @return The updated settings.
+     */
+    public StorageConfig withListBudget(long listBudget) {
+        assert listBudget >= 0 : "List budget must not be negative";
+        StorageConfig copy = copy();
+        copy.listBudget = listBudget;
+        return copy;
+    }
+
+    public boolean isJournaled() {
+        return this.isJournaled || this.isLazy;
+    }
+
+    public long getCompactionThreshold() {
+        return this.compactionThreshold;
+    }
+
+    public Durability getDurability() {
+        return this.durability;
+    }
+
+    public long getCommitWindowMillis() {
+        return this.commitWindowMillis;
+    }
+
+    public StorageFormat getFormat() {
+        return this.format;
+    }
+
+    public boolean isLazy() {
+        return this.isLazy;
+    }
+
+    public String getDirectory() {
+        return this.directory;
+    }
+
+    public int getUndoDepth() {
+        return this.undoDepth;
+    }
+
+    public boolean isUndoPersisted() {
+        return this.isUndoPersisted;
+    }
+
+    public String getListName() {
+        return this.listName;
+    }
+
+    public long getListBudget() {
+        return this.listBudget;
+    }
+}
@@ -0,0 +1,49 @@
+package thecount.storage;
+
+/**
+ * Represents the on-disk format of the data file.
+ */
+public enum StorageFormat {
+    /** Human-readable lines of the form {@code index | type | done | description | time}. */
+    TEXT(".txt"),
+    /** The compact format described in {@link BinaryFormat}. */
+    BINARY(".bin");
+
+    private final String extension;
+
+    StorageFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return this.extension;
+    }
+
+    /**
+     * Gets the name of a task list's data file in this format.
+     *
+     * @param listName The name of the task list, e.g. {@code the-count}.
+     * @return The file name, e.g. {@code the-count.txt}.
+     */
+    public String getFileName(String listName) {
+        return listName + this.extension;
+    }
+
+    /**
+     * Parses a format name, ignoring case.
+     *
+     * @param name The name of the format.
+     * @param fallback The format to return if the name is null or unknown.
+     * @return The format.
+     */
+    public static StorageFormat parse(String name, StorageFormat fallback) {
+        if (name == null) {
+            return fallback;
+        }
+        try {
+            return StorageFormat.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
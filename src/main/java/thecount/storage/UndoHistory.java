@@ -0,0 +1,219 @@
+package thecount.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Remembers the most recent changes, each as the journal records that make it and the records that reverse it,
+ * so changes can be undone and redone without copying the task list.
+ * Changes are kept in a ring buffer of fixed depth, and the records of all changes together are capped;
+ * the oldest changes are forgotten first. A change too large to keep clears the history, since the changes
+ * before it could no longer be reversed safely.
+ */
+class UndoHistory {
+    private static final int MAX_RECORDS = 100_000;
+    private static final String CURSOR_PREFIX = "#";
+    private static final String CHANGE_PREFIX = "> ";
+    private static final String REDO_PREFIX = "+ ";
+    private static final String UNDO_PREFIX = "- ";
+
+    private final Change[] changes;
+    private int oldest;
+    private int count;
+    private int doneCount;
+    private int recordCount;
+    private Change open;
+
+    /**
+     * Constructs an empty UndoHistory.
+     *
+     * @param depth The number of changes to remember, or 0 to remember none.
+     */
+    UndoHistory(int depth) {
+        assert depth >= 0 : "Undo depth must not be negative";
+        this.changes = new Change[depth];
+    }
+
+    /**
+     * Starts recording a change. Records added until {@link #end()} belong to it.
+     *
+     * @param label What the change was, e.g. the command that made it.
+     */
+    void begin(String label) {
+        this.open = this.changes.length == 0 ? null : new Change(label);
+    }
+
+    /**
+     * Adds a record that makes part of the open change.
+     *
+     * @param record The record.
+     */
+    void addRedo(String record) {
+        if (this.open != null) {
+            this.open.redo.add(record);
+        }
+    }
+
+    /**
+     * Adds a record that reverses part of the open change.
+     *
+     * @param record The record.
+     */
+    void addUndo(String record) {
+        if (this.open != null) {
+            this.open.undo.add(record);
+        }
+    }
+
+    /**
+     * Finishes recording the open change, forgetting any undone changes after it.
+     * A change that made no records is dropped.
+     */
+    void end() {
+        Change change = this.open;
+        this.open = null;
+        if (change == null || change.redo.isEmpty() || this.changes.length == 0) {
+            return;
+        }
+        while (this.count > this.doneCount) {
+            this.recordCount -= get(--this.count).size();
+        }
+        if (change.size() > MAX_RECORDS) {
+            clear();
+            return;
+        }
+        while (this.count == this.changes.length || this.recordCount + change.size() > MAX_RECORDS) {
+            this.recordCount -= get(0).size();
+            this.changes[this.oldest] = null;
+            this.oldest = (this.oldest + 1) % this.changes.length;
+            this.count--;
+        }
+        this.changes[(this.oldest + this.count) % this.changes.length] = change;
+        this.count++;
+        this.doneCount = this.count;
+        this.recordCount += change.size();
+    }
+
+    /**
+     * Steps back over the most recent change not yet undone.
+     *
+     * @return The change to reverse, or null if there is none.
+     */
+    Change undo() {
+        if (this.doneCount == 0) {
+            return null;
+        }
+        return get(--this.doneCount);
+    }
+
+    /**
+     * Steps forward over the most recently undone change.
+     *
+     * @return The change to make again, or null if there is none.
+     */
+    Change redo() {
+        if (this.doneCount == this.count) {
+            return null;
+        }
+        return get(this.doneCount++);
+    }
+
+    /**
+     * Forgets every change.
+     */
+    void clear() {
+        Arrays.fill(this.changes, null);
+        this.oldest = 0;
+        this.count = 0;
+        this.doneCount = 0;
+        this.recordCount = 0;
+    }
+
+    private Change get(int i) {
+        return this.changes[(this.oldest + i) % this.changes.length];
+    }
+
+    /**
+     * Writes how many changes are not undone, then every change, oldest first.
+     *
+     * @param writer The writer to write to.
+     * @throws IOException If the writer fails.
+     */
+    void writeTo(Writer writer) throws IOException {
+        writer.write(CURSOR_PREFIX + this.doneCount + "\n");
+        for (int i = 0; i < this.count; i++) {
+            Change change = get(i);
+            writer.write(CHANGE_PREFIX + change.label + "\n");
+            for (String record : change.redo) {
+                writer.write(REDO_PREFIX + record + "\n");
+            }
+            for (String record : change.undo) {
+                writer.write(UNDO_PREFIX + record + "\n");
+            }
+        }
+    }
+
+    /**
+     * Replaces the history with the changes read from a reader, keeping only the most recent that fit.
+     *
+     * @param reader The reader, holding what {@link #writeTo(Writer)} wrote.
+     * @throws IOException If the reader fails.
+     */
+    void readFrom(BufferedReader reader) throws IOException {
+        clear();
+        List<Change> read = new ArrayList<>();
+        int readDoneCount = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(CURSOR_PREFIX)) {
+                readDoneCount = Integer.parseInt(line.substring(CURSOR_PREFIX.length()).trim());
+            } else if (line.startsWith(CHANGE_PREFIX)) {
+                read.add(new Change(line.substring(CHANGE_PREFIX.length())));
+            } else if (line.startsWith(REDO_PREFIX) && !read.isEmpty()) {
+                read.get(read.size() - 1).redo.add(line.substring(REDO_PREFIX.length()));
+            } else if (line.startsWith(UNDO_PREFIX) && !read.isEmpty()) {
+                read.get(read.size() - 1).undo.add(line.substring(UNDO_PREFIX.length()));
+            }
+        }
+        for (Change change : read) {
+            this.open = change;
+            end();
+        }
+        // The changes read after the cursor were undone
+        int undoneCount = Math.max(read.size() - readDoneCount, 0);
+        this.doneCount = Math.max(this.count - undoneCount, 0);
+    }
+
+    /**
+     * Represents one change, as the records that make it and the records that reverse it.
+     */
+    static class Change {
+        private final String label;
+        private final List<String> redo = new ArrayList<>();
+        private final List<String> undo = new ArrayList<>();
+
+        Change(String label) {
+            this.label = label;
+        }
+
+        String getLabel() {
+            return this.label;
+        }
+
+        List<String> getRedo() {
+            return this.redo;
+        }
+
+        List<String> getUndo() {
+            return this.undo;
+        }
+
+        int size() {
+            return this.redo.size() + this.undo.size();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package thecount.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import thecount.exception.TheCountException;
+import thecount.task.Task;
+import thecount.task.TaskList;
+
+/**
+ * Manages the named task lists in the data directory, such as {@code team}, {@code personal} and {@code archive},
+ * each stored in a data file named after it.
+ * One list is in use at a time. A list is only loaded the first time it is used or searched, and the lists
+ * not in use are unloaded, least recently used first, once the loaded lists take more than the configured budget.
+ * A list's size is estimated from its number of tasks, so checking the budget never walks the tasks.
+ * Searches across lists load and search each list on a thread of its own, from a pool started on the first search.
+ */
+public class Workspaces {
+    // A rough cost of a task and its share of the list's indexes, used to estimate how much a list takes
+    private static final long ESTIMATED_TASK_BYTES = 512;
+    static final String EXPORT_SUFFIX = "-export";
+    private static final String NAME_PATTERN = "[A-Za-z0-9][A-Za-z0-9_-]*";
+
+    private final StorageConfig config;
+    private final Path directory;
+    private final Map<String, Workspace> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private ExecutorService searchExecutor;
+    private volatile Workspace current;
+
+    /**
+     * Constructs Workspaces, loading the list named in the settings and using it.
+     *
+     * @param config The storage settings, whose list name is the list to use first.
+     */
+    public Workspaces(StorageConfig config) {
+        this(config, null, null);
+    }
+
+    /**
+     * Constructs Workspaces using a list already loaded by the given storage.
+     *
+     * @param config The storage settings, whose list name is the name of the loaded list.
+     * @param tasks The loaded list, or null to load it.
+     * @param loader The storage the list was loaded by, or null to load it.
+     */
+    public Workspaces(StorageConfig config, TaskList tasks, Storage loader) {
+        this.config = config;
+        this.directory = Paths.get(config.getDirectory());
+        Workspace first = new Workspace(config.getListName(), config);
+        if (tasks != null && loader != null) {
+            first.tasks = tasks;
+            first.loader = loader;
+        }
+        first.load();
+        this.loaded.put(first.name, first);
+        this.current = first;
+    }
+
+    /**
+     * Starts using the list with the given name, loading it if it is not loaded, or creating it if it does not exist.
+     * Lists not in use may be unloaded to stay within the budget.
+     *
+     * @param name The name of the list.
+     * @return The list, now in use.
+     * @throws TheCountException If the name is not a valid list name.
+     */
+    public synchronized Workspace select(String name) throws TheCountException {
+        Workspace workspace = get(name);
+        workspace.load();
+        this.current = workspace;
+        evictIdle();
+        return workspace;
+    }
+
+    /**
+     * Gets the list in use.
+     *
+     * @return The list in use, which is always loaded.
+     */
+    public Workspace getCurrent() {
+        return this.current;
+    }
+
+    private synchronized Workspace get(String name) throws TheCountException {
+        if (!name.matches(NAME_PATTERN) || name.endsWith(EXPORT_SUFFIX)) {
+            throw new TheCountException("A list name can only have letters, digits, - and _. I can't count that!");
+        }
+        Workspace workspace = this.loaded.get(name);
+        if (workspace == null) {
+            workspace = new Workspace(name, this.config.withListName(name));
+            this.loaded.put(name, workspace);
+        }
+        return workspace;
+    }
+
+    /**
+     * Unloads the least recently used lists not in use until the loaded lists fit the budget.
+     * An unloaded list saves its changes first.
+     */
+    private synchronized void evictIdle() {
+        long total = 0;
+        for (Workspace workspace : this.loaded.values()) {
+            total += workspace.estimateSize();
+        }
+        Iterator<Workspace> leastRecentFirst = this.loaded.values().iterator();
+        while (total > this.config.getListBudget() && leastRecentFirst.hasNext()) {
+            Workspace workspace = leastRecentFirst.next();
+            if (workspace == this.current) {
+                continue;
+            }
+            total -= workspace.estimateSize();
+            workspace.unload();
+            leastRecentFirst.remove();
+        }
+    }
+
+    /**
+     * Gets the names of the lists in the data directory and those created but not yet saved, in order.
+     * Exported lists, whose names end in {@code -export}, are left out.
+     *
+     * @return The names of the lists.
+     */
+    public synchronized List<String> getNames() {
+        TreeSet<String> names = new TreeSet<>(this.loaded.keySet());
+        if (Files.isDirectory(this.directory)) {
+            try (Stream<Path> files = Files.list(this.directory)) {
+                files.forEach(file -> {
+                    String name = toListName(file.getFileName().toString());
+                    if (name != null) {
+                        names.add(name);
+                    }
+                });
+            } catch (IOException e) {
+                System.err.println(e);
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    private static String toListName(String fileName) {
+        for (StorageFormat format : StorageFormat.values()) {
+            if (fileName.endsWith(format.getExtension())) {
+                String name = fileName.substring(0, fileName.length() - format.getExtension().length());
+                return name.matches(NAME_PATTERN) && !name.endsWith(EXPORT_SUFFIX) ? name : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the tasks in each loaded list, without counting as a use of the lists.
+     *
+     * @return The number of tasks in each loaded list, by list name.
+     */
+    public synchronized Map<String, Integer> countLoadedTasks() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Workspace workspace : this.loaded.values()) {
+            TaskList tasks = workspace.getTasks();
+            if (tasks != null) {
+                counts.put(workspace.name, tasks.length());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the threads searches across lists run on, starting them on the first search.
+     */
+    private synchronized ExecutorService getSearchExecutor() {
+        if (this.searchExecutor == null) {
+            this.searchExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "list-search");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return this.searchExecutor;
+    }
+
+    /**
+     * Finds the tasks in every list with words starting with each word of the keyword, searching the lists
+     * in parallel. Lists not yet loaded are loaded to be searched, then may be unloaded to stay within the budget.
+     *
+     * @param keyword The keyword to search for.
+     * @return The matching tasks of each list with any, by list name.
+     */
+    public Map<String, List<Task>> search(String keyword) {
+        List<CompletableFuture<List<Task>>> searches = new ArrayList<>();
+        List<String> names = getNames();
+        ExecutorService executor = getSearchExecutor();
+        for (String name : names) {
+            searches.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return get(name).load().searchTasks(keyword);
+                } catch (TheCountException e) {
+                    return List.of();
+                }
+            }, executor));
+        }
+        Map<String, List<Task>> found = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            List<Task> tasks = searches.get(i).join();
+            if (!tasks.isEmpty()) {
+                found.put(names.get(i), tasks);
+            }
+        }
+        evictIdle();
+        return found;
+    }
+
+    /**
+     * Persists any pending changes to every loaded list.
+     */
+    public synchronized void flush() {
+        for (Workspace workspace : this.loaded.values()) {
+            workspace.flush();
+        }
+    }
+
+    /**
+     * Persists any pending changes to every loaded list and closes them.
+     */
+    public synchronized void close() {
+        if (this.searchExecutor != null) {
+            this.searchExecutor.shutdown();
+            this.searchExecutor = null;
+        }
+        for (Workspace workspace : this.loaded.values()) {
+            workspace.unload();
+        }
+        this.loaded.clear();
+    }
+
+    /**
+     * Represents a named task list and the storage it is loaded from and saved to.
+     * It is loaded the first time it is asked for, and keeps the list it loaded until it is unloaded.
+     */
+    public static class Workspace {
+        private final String name;
+        private final StorageConfig config;
+        private TaskList tasks;
+        private Storage loader;
+        private boolean isUnloaded;
+
+        private Workspace(String name, StorageConfig config) {
+            this.name = name;
+            this.config = config;
+        }
+
+        /**
+         * Loads the list if it is not loaded.
+         * A list asked for after it was unloaded, as a search that started before may do, is loaded but not kept.
+         *
+         * @return The list.
+         */
+        private synchronized TaskList load() {
+            if (this.tasks != null) {
+                return this.tasks;
+            }
+            TaskList tasks = new TaskList();
+            Storage loader = new Storage(tasks, this.config);
+            if (this.isUnloaded) {
+                loader.close();
+                return tasks;
+            }
+            this.tasks = tasks;
+            this.loader = loader;
+            return tasks;
+        }
+
+        private synchronized void unload() {
+            if (this.loader != null) {
+                this.loader.close();
+            }
+            this.tasks = null;
+            this.loader = null;
+            this.isUnloaded = true;
+        }
+
+        private synchronized void flush() {
+            if (this.loader != null) {
+                this.loader.flush();
+            }
+        }
+
+        private synchronized long estimateSize() {
+            return this.tasks == null ? 0 : this.tasks.length() * ESTIMATED_TASK_BYTES;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public synchronized TaskList getTasks() {
+            return this.tasks;
+        }
+
+        public synchronized Storage getStorage() {
+            return this.loader;
+        }
+    }
+}
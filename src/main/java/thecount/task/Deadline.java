@@ -29,6 +29,17 @@ public class Deadline extends Task {
         }
     }
 
+    /**
+     * Constructs a deadline task with the given description and deadline date.
+     *
+     * @param description The description of the deadline task.
+     * @param deadlineTime The deadline date of the task.
+     */
+    public Deadline(String description, LocalDate deadlineTime) {
+        super(description);
+        this.deadlineTime = deadlineTime;
+    }
+
     /**
      * Converts the string representation of the deadline time to a LocalDate object.
      *
@@ -74,6 +85,15 @@ public class Deadline extends Task {
         return this.deadlineTime.toString();
     }
 
+    /**
+     * Gets the deadline date.
+     *
+     * @return The deadline date.
+     */
+    public LocalDate getDeadlineDate() {
+        return this.deadlineTime;
+    }
+
     /**
      * Gets the type of the task.
      *
@@ -95,6 +115,16 @@ public class Deadline extends Task {
         return super.getDesc() + " | " + this.deadlineTime;
     }
 
+    /**
+     * Encodes the task's fields as they are stored, including the deadline date.
+     *
+     * @return The task's stored fields.
+     */
+    @Override
+    public String encodeFields() {
+        return super.encodeFields() + " | " + this.deadlineTime;
+    }
+
     /**
      * Converts the deadline task to a string representation.
      *
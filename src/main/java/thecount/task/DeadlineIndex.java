@@ -0,0 +1,78 @@
+package thecount.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps the deadlines that are not yet done sorted by their deadline date, so that the deadlines due
+ * in a range of dates can be found without scanning the whole list.
+ * Deadlines due on the same date are kept in list order.
+ */
+class DeadlineIndex {
+    private static final Comparator<Task> LIST_ORDER = Comparator.comparingLong(Task::getId);
+
+    private final TreeMap<LocalDate, TreeSet<Task>> deadlinesByDate = new TreeMap<>();
+
+    /**
+     * Indexes the task if it is a deadline that is not yet done.
+     *
+     * @param task The task to index.
+     */
+    void add(Task task) {
+        if (!(task instanceof Deadline) || task.isDone()) {
+            return;
+        }
+        LocalDate date = ((Deadline) task).getDeadlineDate();
+        deadlinesByDate.computeIfAbsent(date, d -> new TreeSet<>(LIST_ORDER)).add(task);
+    }
+
+    /**
+     * Removes the task from the index, if it is there.
+     *
+     * @param task The task to remove.
+     */
+    void remove(Task task) {
+        if (!(task instanceof Deadline)) {
+            return;
+        }
+        LocalDate date = ((Deadline) task).getDeadlineDate();
+        Set<Task> deadlines = deadlinesByDate.get(date);
+        if (deadlines != null) {
+            deadlines.remove(task);
+            if (deadlines.isEmpty()) {
+                deadlinesByDate.remove(date);
+            }
+        }
+    }
+
+    /**
+     * Finds the deadlines due from one date up to, but not including, another.
+     *
+     * @param from The earliest date to include, or null for no earliest date.
+     * @param before The date to stop before, or null for no latest date.
+     * @return The deadlines due in the range, by date and then in list order.
+     */
+    List<Task> findDue(LocalDate from, LocalDate before) {
+        List<Task> found = new ArrayList<>();
+        if (from != null && before != null && !from.isBefore(before)) {
+            return found;
+        }
+        NavigableMap<LocalDate, TreeSet<Task>> range = deadlinesByDate;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (before != null) {
+            range = range.headMap(before, false);
+        }
+        for (Set<Task> deadlines : range.values()) {
+            found.addAll(deadlines);
+        }
+        return found;
+    }
+}
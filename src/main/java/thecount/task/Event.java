@@ -1,14 +1,36 @@
 package thecount.task;
 
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+
 import thecount.ui.AddToListReply;
 import thecount.ui.Reply;
 
 /**
  * Represents an event task in the to-do list.
+ * The start and end times are kept as entered, and are also read as a date-time range when they allow it,
+ * e.g. {@code 2026-10-20 1400} or {@code 2026-10-20 2pm} to {@code 4pm}, or {@code 2026-10-20} to {@code 2026-10-22}.
+ * An end time without a date falls on the start date, and an end date alone covers that whole day.
  */
 public class Event extends Task {
+    // Every accepted form in one pass: an optional date, then an optional time as 2pm, 2:30pm, 1400 or 14:00
+    private static final DateTimeFormatter DATE_TIME = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("[uuuu-MM-dd][ ][h[:mm]a][HHmm][H:mm]")
+            .toFormatter(Locale.ENGLISH);
+
     private String startTime;
     private String endTime;
+    private LocalDateTime start;
+    private LocalDateTime end;
 
     /**
      * Constructs an event task with the given description, start time, and end time.
@@ -21,6 +43,88 @@ public class Event extends Task {
         super(description);
         this.startTime = startTime;
         this.endTime = endTime;
+        LocalDateTime start = parseStart(startTime);
+        LocalDateTime end = start == null ? null : parseEnd(endTime, start.toLocalDate());
+        if (end != null && !end.isBefore(start)) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static LocalDateTime parseStart(String text) {
+        TemporalAccessor parsed = parse(text);
+        if (parsed == null || !parsed.isSupported(ChronoField.YEAR)) {
+            return null;
+        }
+        LocalDate date = toDate(parsed);
+        LocalTime time = hasTime(parsed) ? toTime(parsed) : LocalTime.MIDNIGHT;
+        return date == null || time == null ? null : date.atTime(time);
+    }
+
+    private static LocalDateTime parseEnd(String text, LocalDate startDate) {
+        TemporalAccessor parsed = parse(text);
+        if (parsed == null) {
+            return null;
+        }
+        LocalDate date = parsed.isSupported(ChronoField.YEAR) ? toDate(parsed) : startDate;
+        if (date == null) {
+            return null;
+        }
+        if (!hasTime(parsed)) {
+            return parsed.isSupported(ChronoField.YEAR) ? date.plusDays(1).atStartOfDay() : null;
+        }
+        LocalTime time = toTime(parsed);
+        return time == null ? null : date.atTime(time);
+    }
+
+    /**
+     * Reads the fields of a date, time or both without resolving them, so text in none of the accepted forms
+     * is turned down without an exception being thrown.
+     *
+     * @return The fields read, or null if the text is not in an accepted form.
+     */
+    private static TemporalAccessor parse(String text) {
+        String trimmed = text.trim();
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = DATE_TIME.parseUnresolved(trimmed, position);
+        if (trimmed.isEmpty() || parsed == null || position.getErrorIndex() >= 0
+                || position.getIndex() < trimmed.length()) {
+            return null;
+        }
+        return parsed;
+    }
+
+    private static boolean hasTime(TemporalAccessor parsed) {
+        return parsed.isSupported(ChronoField.HOUR_OF_DAY) || parsed.isSupported(ChronoField.CLOCK_HOUR_OF_AMPM);
+    }
+
+    private static LocalDate toDate(TemporalAccessor parsed) {
+        long year = parsed.getLong(ChronoField.YEAR);
+        long month = parsed.getLong(ChronoField.MONTH_OF_YEAR);
+        long day = parsed.getLong(ChronoField.DAY_OF_MONTH);
+        if (!ChronoField.YEAR.range().isValidIntValue(year) || month < 1 || month > 12
+                || day < 1 || day > YearMonth.of((int) year, (int) month).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of((int) year, (int) month, (int) day);
+    }
+
+    private static LocalTime toTime(TemporalAccessor parsed) {
+        long hour;
+        if (parsed.isSupported(ChronoField.HOUR_OF_DAY)) {
+            hour = parsed.getLong(ChronoField.HOUR_OF_DAY);
+        } else {
+            long clockHour = parsed.getLong(ChronoField.CLOCK_HOUR_OF_AMPM);
+            if (clockHour < 1 || clockHour > 12) {
+                return null;
+            }
+            hour = clockHour % 12 + 12 * parsed.getLong(ChronoField.AMPM_OF_DAY);
+        }
+        long minute = parsed.isSupported(ChronoField.MINUTE_OF_HOUR) ? parsed.getLong(ChronoField.MINUTE_OF_HOUR) : 0;
+        if (hour > 23 || minute > 59) {
+            return null;
+        }
+        return LocalTime.of((int) hour, (int) minute);
     }
 
     /**
@@ -33,6 +137,41 @@ public class Event extends Task {
         return replyToUser.displayMessage();
     }
 
+    public String getStartTime() {
+        return this.startTime;
+    }
+
+    public String getEndTime() {
+        return this.endTime;
+    }
+
+    /**
+     * Checks if the start and end times could be read as a date-time range.
+     *
+     * @return True if the event has a start and an end date-time.
+     */
+    public boolean isScheduled() {
+        return this.start != null;
+    }
+
+    /**
+     * Gets the date-time the event starts at.
+     *
+     * @return The start of the event, or null if it is not scheduled.
+     */
+    public LocalDateTime getStart() {
+        return this.start;
+    }
+
+    /**
+     * Gets the date-time the event ends at, which is not part of the event.
+     *
+     * @return The end of the event, or null if it is not scheduled.
+     */
+    public LocalDateTime getEnd() {
+        return this.end;
+    }
+
     /**
      * Gets the type of the task.
      *
@@ -44,13 +183,25 @@ public class Event extends Task {
     }
 
     /**
-     * Gets the description of the task, including the start and end times.
+     * Gets the description of the task, including the start and end times as separate fields.
+     * (More so for writing to file)
      *
      * @return The description of the task.
      */
     @Override
     public String getDesc() {
-        return super.getDesc() + " | " + this.startTime + "-" + this.endTime;
+        return super.getDesc() + " | " + this.startTime + " | " + this.endTime;
+    }
+
+    /**
+     * Encodes the task's fields as they are stored, including the start and end times.
+     *
+     * @return The task's stored fields.
+     */
+    @Override
+    public String encodeFields() {
+        return super.encodeFields() + " | " + StoredFields.escape(this.startTime)
+                + " | " + StoredFields.escape(this.endTime);
     }
 
     /**
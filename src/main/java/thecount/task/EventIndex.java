@@ -0,0 +1,198 @@
+package thecount.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Keeps the scheduled events in an interval tree, so that the events overlapping a range of time can be found
+ * without comparing every event.
+ * The tree is a treap ordered by start time and then list order, in which each node also records the latest end
+ * in its subtree. Subtrees that end before a range begins, or start after it ends, are skipped.
+ */
+class EventIndex {
+    private final Random random = new Random();
+    private Node root;
+
+    /**
+     * Represents one event in the tree.
+     */
+    private static class Node {
+        private final Event event;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(Event event, int priority) {
+            this.event = event;
+            this.priority = priority;
+            this.maxEnd = event.getEnd();
+        }
+    }
+
+    /**
+     * Indexes the task if it is a scheduled event.
+     *
+     * @param task The task to index.
+     */
+    void add(Task task) {
+        if (task instanceof Event && ((Event) task).isScheduled()) {
+            this.root = insert(this.root, new Node((Event) task, random.nextInt()));
+        }
+    }
+
+    /**
+     * Removes the task from the index, if it is there.
+     *
+     * @param task The task to remove.
+     */
+    void remove(Task task) {
+        if (task instanceof Event && ((Event) task).isScheduled()) {
+            this.root = delete(this.root, (Event) task);
+        }
+    }
+
+    /**
+     * Finds the events that overlap a range of time.
+     *
+     * @param from The start of the range.
+     * @param to The end of the range, which is not part of the range.
+     * @return The overlapping events, by start time and then in list order.
+     */
+    List<Task> findOverlapping(LocalDateTime from, LocalDateTime to) {
+        List<Task> found = new ArrayList<>();
+        collectOverlapping(this.root, from, to, found);
+        return found;
+    }
+
+    /**
+     * Finds every pair of events that overlap each other.
+     *
+     * @return The pairs of overlapping events, each with the earlier event first.
+     */
+    List<Task[]> findConflicts() {
+        List<Task> events = new ArrayList<>();
+        collectAll(this.root, events);
+        List<Task[]> conflicts = new ArrayList<>();
+        for (Task task : events) {
+            Event event = (Event) task;
+            for (Task other : findOverlapping(event.getStart(), event.getEnd())) {
+                if (compare((Event) other, event) > 0) {
+                    conflicts.add(new Task[] {event, other});
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private static int compare(Event a, Event b) {
+        int byStart = a.getStart().compareTo(b.getStart());
+        return byStart != 0 ? byStart : Long.compare(a.getId(), b.getId());
+    }
+
+    private static void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to, List<Task> found) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, found);
+        if (!node.event.getStart().isBefore(to)) {
+            return;
+        }
+        if (node.event.getEnd().isAfter(from)) {
+            found.add(node.event);
+        }
+        collectOverlapping(node.right, from, to, found);
+    }
+
+    private static void collectAll(Node node, List<Task> found) {
+        if (node == null) {
+            return;
+        }
+        collectAll(node.left, found);
+        found.add(node.event);
+        collectAll(node.right, found);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.event, node.event) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, Event event) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(event, node.event);
+        if (comparison < 0) {
+            node.left = delete(node.left, event);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, event);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        LocalDateTime maxEnd = node.event.getEnd();
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+}
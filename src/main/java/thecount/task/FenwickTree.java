@@ -0,0 +1,95 @@
+package thecount.task;
+
+import java.util.Arrays;
+
+/**
+ * Counts the live slots of a list with tombstones, so that the slot holding the task at a given position,
+ * and the position of the task in a given slot, can both be found in logarithmic time.
+ */
+class FenwickTree {
+    private int[] tree;
+    private int size;
+
+    /**
+     * Constructs a FenwickTree over the given number of slots, all of them live.
+     *
+     * @param size The number of slots.
+     */
+    FenwickTree(int size) {
+        this.tree = new int[Math.max(size, 1) + 1];
+        this.size = size;
+        for (int i = 1; i <= size; i++) {
+            this.tree[i] += 1;
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+    }
+
+    /**
+     * Adds a live slot after the existing ones.
+     */
+    void append() {
+        if (this.size + 1 == this.tree.length) {
+            this.tree = Arrays.copyOf(this.tree, this.tree.length * 2);
+        }
+        int i = ++this.size;
+        this.tree[i] = 1 + countLive(i - 1) - countLive(i - (i & -i));
+    }
+
+    /**
+     * Marks a slot as a tombstone.
+     *
+     * @param slot The 0-based slot.
+     */
+    void remove(int slot) {
+        for (int i = slot + 1; i <= this.size; i += i & -i) {
+            this.tree[i]--;
+        }
+    }
+
+    /**
+     * Marks a tombstone as a live slot again.
+     *
+     * @param slot The 0-based slot.
+     */
+    void restore(int slot) {
+        for (int i = slot + 1; i <= this.size; i += i & -i) {
+            this.tree[i]++;
+        }
+    }
+
+    /**
+     * Counts the live slots among the first ones.
+     *
+     * @param slots The number of slots to look at.
+     * @return The number of live slots among them.
+     */
+    int countLive(int slots) {
+        int count = 0;
+        for (int i = slots; i > 0; i -= i & -i) {
+            count += this.tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Finds the slot of the live slot at a position.
+     *
+     * @param position The 1-based position among the live slots.
+     * @return The 0-based slot.
+     */
+    int findSlot(int position) {
+        int slot = 0;
+        int remaining = position;
+        for (int step = Integer.highestOneBit(this.size); step > 0; step >>= 1) {
+            int next = slot + step;
+            if (next <= this.size && this.tree[next] < remaining) {
+                slot = next;
+                remaining -= this.tree[next];
+            }
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,125 @@
+package thecount.task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Maps every lowercased word in the task descriptions and tags to the tasks containing it.
+ * The words are kept sorted, so the words starting with a prefix are found as one range of them.
+ * A query matches the tasks in which each of its words starts some word of the description.
+ */
+class KeywordIndex {
+    private static final Comparator<Task> LIST_ORDER = Comparator.comparingLong(Task::getId);
+
+    private final TreeMap<String, TreeSet<Task>> postings = new TreeMap<>();
+
+    /**
+     * Indexes the words of the task's description and tags.
+     *
+     * @param task The task to index.
+     */
+    void add(Task task) {
+        for (String word : tokenize(task.getDesc() + " " + task.formatTags())) {
+            postings.computeIfAbsent(word, key -> new TreeSet<>(LIST_ORDER)).add(task);
+        }
+    }
+
+    /**
+     * Removes the task from the index. Must be called before the task's description or tags change.
+     *
+     * @param task The task to remove.
+     */
+    void remove(Task task) {
+        for (String word : tokenize(task.getDesc() + " " + task.formatTags())) {
+            Set<Task> matches = postings.get(word);
+            if (matches != null) {
+                matches.remove(task);
+                if (matches.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the tasks matching every word of the query, in list order.
+     * The tasks with a word starting with the query word that has the fewest of them are gathered,
+     * and each is checked against the other query words.
+     *
+     * @param query The words to look for.
+     * @return The matching tasks, or null if the query has no words to look up.
+     */
+    List<Task> find(String query) {
+        Set<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return null;
+        }
+        SortedMap<String, TreeSet<Task>> fewest = null;
+        int fewestCount = Integer.MAX_VALUE;
+        for (String word : words) {
+            SortedMap<String, TreeSet<Task>> range = postings.subMap(word, word + Character.MAX_VALUE);
+            int count = 0;
+            for (Set<Task> matches : range.values()) {
+                count += matches.size();
+            }
+            if (count == 0) {
+                return new ArrayList<>();
+            }
+            if (count < fewestCount) {
+                fewest = range;
+                fewestCount = count;
+            }
+        }
+        Set<Task> candidates;
+        if (fewest.size() == 1) {
+            candidates = fewest.values().iterator().next();
+        } else {
+            candidates = new TreeSet<>(LIST_ORDER);
+            fewest.values().forEach(candidates::addAll);
+        }
+        List<Task> found = new ArrayList<>();
+        for (Task task : candidates) {
+            if (words.size() == 1 || startsWords(task, words)) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks if each of the words starts some word of the task's description or tags.
+     */
+    private static boolean startsWords(Task task, Set<String> words) {
+        Set<String> taskWords = tokenize(task.getDesc() + " " + task.formatTags());
+        for (String word : words) {
+            if (taskWords.stream().noneMatch(taskWord -> taskWord.startsWith(word))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits text into its lowercased words, treating anything but letters and digits as a separator.
+     */
+    private static Set<String> tokenize(String text) {
+        Set<String> words = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,145 @@
+package thecount.task;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.EnumSet;
+import java.util.Locale;
+
+import thecount.exception.TheCountException;
+
+/**
+ * Represents how often a recurring task repeats: every day, every week on some days of the week, or every month.
+ * A rule is written as {@code day}, {@code week}, {@code week mon,wed} or {@code month}.
+ * A weekly rule without days repeats on the day of the week its task starts on, and a monthly rule repeats
+ * on the day of the month its task starts on, skipping months too short to have that day.
+ * A rule never lists its occurrences; it only finds the next one after a date, so it takes the same space
+ * however far its task repeats.
+ */
+public class Recurrence {
+    private static final String DAILY = "day";
+    private static final String WEEKLY = "week";
+    private static final String MONTHLY = "month";
+
+    private final String frequency;
+    private final EnumSet<DayOfWeek> days;
+
+    private Recurrence(String frequency, EnumSet<DayOfWeek> days) {
+        this.frequency = frequency;
+        this.days = days;
+    }
+
+    /**
+     * Reads a rule such as {@code week mon,wed}. Days may be written in full or shortened,
+     * separated by commas or spaces.
+     *
+     * @param rule The rule.
+     * @return The recurrence.
+     * @throws TheCountException If the rule is not one of the rules above.
+     */
+    public static Recurrence parse(String rule) throws TheCountException {
+        String[] words = rule.trim().toLowerCase(Locale.ROOT).split("[\\s,]+");
+        String frequency = words[0].replaceFirst("(ly|s)$", "");
+        if (frequency.equals("dai")) {
+            frequency = DAILY;
+        }
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (int i = 1; i < words.length; i++) {
+            if (i == 1 && words[i].equals("on")) {
+                continue;
+            }
+            days.add(parseDay(words[i]));
+        }
+        boolean isKnown = frequency.equals(DAILY) || frequency.equals(WEEKLY) || frequency.equals(MONTHLY);
+        if (!isKnown || (!days.isEmpty() && !frequency.equals(WEEKLY))) {
+            throw new TheCountException("I can only count every day, every week (on some days) or every month!");
+        }
+        return new Recurrence(frequency, days);
+    }
+
+    private static DayOfWeek parseDay(String word) throws TheCountException {
+        if (word.length() >= 2) {
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (day.name().toLowerCase(Locale.ROOT).startsWith(word)) {
+                    return day;
+                }
+            }
+        }
+        throw new TheCountException(word + " is not a day of the week. I can't count that!");
+    }
+
+    /**
+     * Finds the first occurrence on or after a date.
+     *
+     * @param date The date to search from, which must not be before the start.
+     * @param start The date the recurring task starts on, which sets the day of the week or month it repeats on.
+     * @return The date of the occurrence.
+     */
+    public LocalDate next(LocalDate date, LocalDate start) {
+        assert !date.isBefore(start) : "Occurrences are only found from the start on";
+        switch (this.frequency) {
+        case WEEKLY:
+            LocalDate day = date;
+            while (!repeatsOn(day.getDayOfWeek(), start)) {
+                day = day.plusDays(1);
+            }
+            return day;
+        case MONTHLY:
+            int dayOfMonth = start.getDayOfMonth();
+            YearMonth month = YearMonth.from(date);
+            if (date.getDayOfMonth() > dayOfMonth) {
+                month = month.plusMonths(1);
+            }
+            while (!month.isValidDay(dayOfMonth)) {
+                month = month.plusMonths(1);
+            }
+            return month.atDay(dayOfMonth);
+        default:
+            return date;
+        }
+    }
+
+    private boolean repeatsOn(DayOfWeek day, LocalDate start) {
+        return this.days.isEmpty() ? day == start.getDayOfWeek() : this.days.contains(day);
+    }
+
+    /**
+     * Describes the rule for the user, e.g. {@code every week on Mon, Wed}.
+     *
+     * @param start The date the recurring task starts on.
+     * @return The description.
+     */
+    public String describe(LocalDate start) {
+        if (!this.frequency.equals(WEEKLY)) {
+            return "every " + this.frequency;
+        }
+        StringBuilder description = new StringBuilder("every week on ");
+        for (DayOfWeek day : this.days.isEmpty() ? EnumSet.of(start.getDayOfWeek()) : this.days) {
+            if (description.charAt(description.length() - 1) != ' ') {
+                description.append(", ");
+            }
+            description.append(day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+        }
+        return description.toString();
+    }
+
+    /**
+     * Writes the rule as it is stored and read back by {@link #parse(String)}, e.g. {@code week mon,wed}.
+     *
+     * @return The rule.
+     */
+    @Override
+    public String toString() {
+        if (this.days.isEmpty()) {
+            return this.frequency;
+        }
+        StringBuilder rule = new StringBuilder(this.frequency);
+        char separator = ' ';
+        for (DayOfWeek day : this.days) {
+            rule.append(separator).append(day.name().substring(0, 3).toLowerCase(Locale.ROOT));
+            separator = ',';
+        }
+        return rule.toString();
+    }
+}
@@ -0,0 +1,317 @@
+package thecount.task;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import thecount.ui.AddToListReply;
+import thecount.ui.Reply;
+
+/**
+ * Represents a task that repeats by a {@link Recurrence}, e.g. every week on Mondays, from a start date
+ * and optionally until an end date.
+ * Its occurrences are never stored: they are worked out one at a time, only for the dates a query asks about.
+ * An occurrence marked done is kept as just its date, so the task takes the same space however far it repeats.
+ * Marking the whole task done marks every occurrence done.
+ */
+public class Recurring extends Task {
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MMM d yyyy");
+    private static final String NONE = "-";
+
+    private final Recurrence recurrence;
+    private final LocalDate start;
+    private final LocalDate until;
+    private TreeSet<LocalDate> doneDates = new TreeSet<>();
+
+    /**
+     * Constructs a recurring task.
+     *
+     * @param description The description of the task.
+     * @param recurrence How often the task repeats.
+     * @param start The first date the task may occur on.
+     * @param until The last date the task may occur on, or null if it repeats forever.
+     */
+    public Recurring(String description, Recurrence recurrence, LocalDate start, LocalDate until) {
+        super(description);
+        assert until == null || !until.isBefore(start) : "A recurring task must not end before it starts";
+        this.recurrence = recurrence;
+        this.start = start;
+        this.until = until;
+    }
+
+    /**
+     * Copies the task, including the occurrences marked done.
+     *
+     * @return The copy.
+     */
+    @Override
+    public Recurring copy() {
+        Recurring copy = (Recurring) super.copy();
+        copy.doneDates = new TreeSet<>(this.doneDates);
+        return copy;
+    }
+
+    /**
+     * Gets the occurrences of the task from one date up to, but not including, another, worked out as they are
+     * iterated over.
+     *
+     * @param from The earliest date to include, or null to start from the task's start.
+     * @param before The date to stop before, or null to go on until the task's end, or forever if it has none.
+     * @return The dates of the occurrences, in order.
+     */
+    public Iterator<LocalDate> occurrences(LocalDate from, LocalDate before) {
+        return new Iterator<LocalDate>() {
+            private LocalDate next = findNext(from == null || from.isBefore(start) ? start : from);
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null && (before == null || this.next.isBefore(before));
+            }
+
+            @Override
+            public LocalDate next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                LocalDate occurrence = this.next;
+                this.next = findNext(occurrence.plusDays(1));
+                return occurrence;
+            }
+        };
+    }
+
+    /**
+     * Finds the first occurrence on or after a date that is not before the start, or null if the task has ended.
+     */
+    private LocalDate findNext(LocalDate date) {
+        if (this.until != null && date.isAfter(this.until)) {
+            return null;
+        }
+        LocalDate next = this.recurrence.next(date, this.start);
+        return this.until != null && next.isAfter(this.until) ? null : next;
+    }
+
+    /**
+     * Checks if the task occurs on a date.
+     *
+     * @param date The date.
+     * @return True if the task has an occurrence on that date.
+     */
+    public boolean occursOn(LocalDate date) {
+        return !date.isBefore(this.start) && date.equals(findNext(date));
+    }
+
+    /**
+     * Checks if the occurrence on a date is done, either by itself or because the whole task is.
+     *
+     * @param date The date of the occurrence.
+     * @return True if the occurrence is done.
+     */
+    public boolean isDoneOn(LocalDate date) {
+        return isDone() || this.doneDates.contains(date);
+    }
+
+    /**
+     * Marks the occurrence on a date as done.
+     *
+     * @param date The date of the occurrence.
+     */
+    public void markOccurrence(LocalDate date) {
+        assert occursOn(date) : "Only an occurrence can be marked";
+        this.doneDates.add(date);
+    }
+
+    /**
+     * Marks the occurrence on a date as not done.
+     *
+     * @param date The date of the occurrence.
+     */
+    public void unmarkOccurrence(LocalDate date) {
+        this.doneDates.remove(date);
+    }
+
+    /**
+     * Gets one occurrence of the task, as listed by queries on dates.
+     *
+     * @param date The date of the occurrence.
+     * @return The occurrence.
+     */
+    public Occurrence occurrenceOn(LocalDate date) {
+        return new Occurrence(this, date);
+    }
+
+    public Recurrence getRecurrence() {
+        return this.recurrence;
+    }
+
+    public LocalDate getStart() {
+        return this.start;
+    }
+
+    /**
+     * Gets the last date the task may occur on.
+     *
+     * @return The end date, or null if the task repeats forever.
+     */
+    public LocalDate getUntil() {
+        return this.until;
+    }
+
+    /**
+     * Gets the dates of the occurrences marked done by themselves.
+     *
+     * @return The dates, in order.
+     */
+    public SortedSet<LocalDate> getDoneDates() {
+        return Collections.unmodifiableSortedSet(this.doneDates);
+    }
+
+    /**
+     * Formats the dates of the occurrences marked done as they are stored, e.g. {@code 2026-10-19,2026-10-26}.
+     *
+     * @return The formatted dates, or {@code -} if there are none.
+     */
+    public String formatDoneDates() {
+        if (this.doneDates.isEmpty()) {
+            return NONE;
+        }
+        StringBuilder formatted = new StringBuilder();
+        for (LocalDate date : this.doneDates) {
+            if (formatted.length() > 0) {
+                formatted.append(',');
+            }
+            formatted.append(date);
+        }
+        return formatted.toString();
+    }
+
+    /**
+     * Marks the occurrences on each of the given dates done.
+     *
+     * @param formattedDates The dates as formatted by {@link #formatDoneDates()}.
+     */
+    public void parseDoneDates(String formattedDates) {
+        String dates = formattedDates.trim();
+        if (dates.equals(NONE) || dates.isEmpty()) {
+            return;
+        }
+        for (String date : dates.split(",")) {
+            this.doneDates.add(LocalDate.parse(date.trim()));
+        }
+    }
+
+    /**
+     * Reads the end date of a recurring task as it is stored.
+     *
+     * @param until The stored end date, or {@code -} if the task repeats forever.
+     * @return The end date, or null if there is none.
+     */
+    public static LocalDate parseUntil(String until) {
+        return until.trim().equals(NONE) ? null : LocalDate.parse(until.trim());
+    }
+
+    /**
+     * Displays a message related to the recurring task.
+     *
+     * @param currSize The current size of the list.
+     */
+    public String displayMessage(int currSize) {
+        Reply replyToUser = new AddToListReply(this.toString(), currSize);
+        return replyToUser.displayMessage();
+    }
+
+    /**
+     * Gets the type of the task.
+     *
+     * @return The type of the task.
+     */
+    @Override
+    public String getType() {
+        return "R";
+    }
+
+    /**
+     * Gets the description of the task, including the rule, the start and end dates,
+     * and the dates of the occurrences marked done as separate fields.
+     * (More so for writing to file)
+     *
+     * @return The description of the task.
+     */
+    @Override
+    public String getDesc() {
+        return super.getDesc() + " | " + this.recurrence + " | " + this.start + " | "
+                + (this.until == null ? NONE : this.until) + " | " + formatDoneDates();
+    }
+
+    /**
+     * Encodes the task's fields as they are stored, including the rule, the start and end dates
+     * and the dates of the occurrences marked done.
+     *
+     * @return The task's stored fields.
+     */
+    @Override
+    public String encodeFields() {
+        return super.encodeFields() + " | " + this.recurrence + " | " + this.start + " | "
+                + (this.until == null ? NONE : this.until) + " | " + formatDoneDates();
+    }
+
+    private String describeSchedule() {
+        String schedule = this.recurrence.describe(this.start) + " from " + this.start.format(DISPLAY_DATE);
+        return this.until == null ? schedule : schedule + " until " + this.until.format(DISPLAY_DATE);
+    }
+
+    /**
+     * Converts the recurring task to a string representation.
+     *
+     * @return The string representation of the recurring task.
+     */
+    @Override
+    public String toString() {
+        return "[R]" + super.toString() + " (" + describeSchedule() + ")";
+    }
+
+    /**
+     * Represents one occurrence of a recurring task, as listed by queries on dates.
+     * It has the id, description and tags of its task, and is done if it was marked done by itself
+     * or the whole task is. It is never added to a list.
+     */
+    public static class Occurrence extends Task {
+        private final Recurring recurring;
+        private final LocalDate date;
+
+        private Occurrence(Recurring recurring, LocalDate date) {
+            super(recurring.getDescription());
+            this.recurring = recurring;
+            this.date = date;
+            setId(recurring.getId());
+            for (String tag : recurring.getTags()) {
+                tag(tag);
+            }
+            if (recurring.isDoneOn(date)) {
+                markAsDone();
+            }
+        }
+
+        public Recurring getRecurring() {
+            return this.recurring;
+        }
+
+        public LocalDate getDate() {
+            return this.date;
+        }
+
+        @Override
+        public String getType() {
+            return "R";
+        }
+
+        @Override
+        public String toString() {
+            return "[R]" + super.toString() + " (on: " + this.date.format(DISPLAY_DATE) + ")";
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package thecount.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escapes and splits the fields of a stored task or change, which are separated by {@code |}.
+ * A {@code |} or {@code \} within a field is stored with a {@code \} before it, so fields may hold any text.
+ */
+public final class StoredFields {
+    private static final char SEPARATOR = '|';
+    private static final char ESCAPE = '\\';
+
+    private StoredFields() {
+    }
+
+    /**
+     * Escapes a field so that it can be stored between separators.
+     *
+     * @param field The text of the field.
+     * @return The escaped field.
+     */
+    public static String escape(String field) {
+        if (field.indexOf(SEPARATOR) < 0 && field.indexOf(ESCAPE) < 0) {
+            return field;
+        }
+        StringBuilder escaped = new StringBuilder(field.length() + 8);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == SEPARATOR || c == ESCAPE) {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Splits a stored line into its fields at each separator not escaped, and unescapes the fields.
+     * A {@code \} before any other character is kept as it is. Fields are not trimmed.
+     *
+     * @param line The stored line.
+     * @return The fields, including any empty fields at the end.
+     */
+    public static String[] split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == ESCAPE && i + 1 < line.length()
+                    && (line.charAt(i + 1) == SEPARATOR || line.charAt(i + 1) == ESCAPE)) {
+                field.append(line.charAt(++i));
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,33 @@
+package thecount.task;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Holds one shared copy of every tag name in use, so that tasks with the same tag share the same string.
+ * Tag names are held weakly: once no task has a tag, as when its tasks are deleted or their list is unloaded,
+ * the garbage collector drops it from the dictionary.
+ */
+final class TagDictionary {
+    private static final Map<String, WeakReference<String>> TAGS = new WeakHashMap<>();
+
+    private TagDictionary() {
+    }
+
+    /**
+     * Gets the shared copy of the tag name.
+     *
+     * @param tag The tag name, without the leading {@code #}.
+     * @return The shared copy of the tag name.
+     */
+    static synchronized String intern(String tag) {
+        WeakReference<String> reference = TAGS.get(tag);
+        String shared = reference == null ? null : reference.get();
+        if (shared != null) {
+            return shared;
+        }
+        TAGS.put(tag, new WeakReference<>(tag));
+        return tag;
+    }
+}
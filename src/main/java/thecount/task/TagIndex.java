@@ -0,0 +1,71 @@
+package thecount.task;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps every tag to the set of tasks carrying it, as a bitmap with one bit per task id.
+ */
+class TagIndex {
+    private final TreeMap<String, BitSet> tasksByTag = new TreeMap<>();
+
+    /**
+     * Indexes the task's tags.
+     *
+     * @param task The task to index.
+     */
+    void add(Task task) {
+        int bit = toBit(task);
+        for (String tag : task.getTags()) {
+            tasksByTag.computeIfAbsent(tag, t -> new BitSet()).set(bit);
+        }
+    }
+
+    /**
+     * Removes the task from the index. Must be called before the task's tags change.
+     *
+     * @param task The task to remove.
+     */
+    void remove(Task task) {
+        int bit = toBit(task);
+        for (String tag : task.getTags()) {
+            BitSet ids = tasksByTag.get(tag);
+            if (ids != null) {
+                ids.clear(bit);
+                if (ids.isEmpty()) {
+                    tasksByTag.remove(tag);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the tasks with the given tag.
+     *
+     * @param tag The tag name, without the leading {@code #}.
+     * @return The ids of the tasks with the tag, which must not be modified.
+     */
+    BitSet find(String tag) {
+        BitSet ids = tasksByTag.get(tag);
+        return ids == null ? new BitSet() : ids;
+    }
+
+    /**
+     * Counts the tasks with each tag.
+     *
+     * @return The number of tasks with each tag, by tag name.
+     */
+    Map<String, Integer> count() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, BitSet> entry : tasksByTag.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().cardinality());
+        }
+        return counts;
+    }
+
+    private static int toBit(Task task) {
+        assert task.getId() <= Integer.MAX_VALUE : "Task id is too large for the tag index";
+        return (int) task.getId();
+    }
+}
@@ -1,14 +1,23 @@
 package thecount.task;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import thecount.ui.AddToListReply;
 import thecount.ui.Reply;
 
 /**
  * Represents a task in the to-do list.
+ * A task has a set of tags, kept apart from its description and shown after it as {@code #tag}.
  */
-public class Task {
+public class Task implements Cloneable {
+    private static final String TAG_PREFIX = "#";
+
     private String description;
     private boolean isDone;
+    private long id;
+    private Set<String> tags = Collections.emptySet();
 
     /**
      * Constructs a task with the given description.
@@ -20,6 +29,43 @@ public class Task {
         this.isDone = false;
     }
 
+    /**
+     * Gets the task's id, which is given when the task is added to a list, increases along the list,
+     * and stays the same when other tasks are deleted.
+     *
+     * @return The task's id, or 0 if the task has not been added to a list.
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Sets the task's id, used when restoring a task that already had one.
+     *
+     * @param id The task's id.
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Copies the task, so the copy can be changed without changing the task.
+     * A task list changes a copy of a task instead of the task itself, so lists of its tasks already handed out
+     * keep each task as it was.
+     *
+     * @return The copy, with the same id, description, status and tags.
+     */
+    public Task copy() {
+        try {
+            Task copy = (Task) super.clone();
+            copy.tags = this.tags.isEmpty() ? Collections.emptySet() : new LinkedHashSet<>(this.tags);
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            // Task is Cloneable
+            throw new AssertionError(e);
+        }
+    }
+
     private String getStatusIcon() {
         return (isDone ? "X" : " "); // mark done tasks with X
     }
@@ -47,8 +93,86 @@ public class Task {
         this.isDone = false;
     }
 
-    public void tag(String message) {
-        this.description = this.description + " #" + message;
+    /**
+     * Adds a tag to the task.
+     *
+     * @param tag The tag name, without the leading {@code #}.
+     */
+    public void tag(String tag) {
+        assert !tag.isEmpty() : "Tag must not be empty";
+        if (this.tags.isEmpty()) {
+            this.tags = new LinkedHashSet<>();
+        }
+        this.tags.add(TagDictionary.intern(tag));
+    }
+
+    /**
+     * Removes a tag from the task.
+     *
+     * @param tag The tag name, without the leading {@code #}.
+     * @return True if the task had the tag.
+     */
+    public boolean untag(String tag) {
+        return this.tags.remove(tag);
+    }
+
+    /**
+     * Gets a read-only view of the task's tags, in the order they were added.
+     *
+     * @return The tag names, without the leading {@code #}.
+     */
+    public Set<String> getTags() {
+        return Collections.unmodifiableSet(this.tags);
+    }
+
+    /**
+     * Formats the task's tags as they are shown and stored, e.g. {@code #work #urgent}.
+     *
+     * @return The formatted tags, or an empty string if the task has none.
+     */
+    public String formatTags() {
+        StringBuilder formatted = new StringBuilder();
+        for (String tag : this.tags) {
+            if (formatted.length() > 0) {
+                formatted.append(' ');
+            }
+            formatted.append(TAG_PREFIX).append(tag);
+        }
+        return formatted.toString();
+    }
+
+    /**
+     * Adds each of the given tags, written as {@code #tag} and separated by spaces, to the task.
+     *
+     * @param formattedTags The tags as formatted by {@link #formatTags()}.
+     */
+    public void parseTags(String formattedTags) {
+        for (String word : formattedTags.trim().split("\\s+")) {
+            if (word.startsWith(TAG_PREFIX) && word.length() > TAG_PREFIX.length()) {
+                tag(word.substring(TAG_PREFIX.length()));
+            }
+        }
+    }
+
+    /**
+     * Moves tags that older versions appended to the description, e.g. {@code read book #leisure}, into the tag set.
+     */
+    public void moveTagsOutOfDescription() {
+        int end = this.description.length();
+        while (true) {
+            int space = this.description.lastIndexOf(' ', end - 1);
+            String word = this.description.substring(space + 1, end);
+            if (space < 0 || !word.startsWith(TAG_PREFIX) || word.length() == TAG_PREFIX.length()) {
+                break;
+            }
+            end = space;
+        }
+        if (end == this.description.length()) {
+            return;
+        }
+        String formattedTags = this.description.substring(end);
+        this.description = this.description.substring(0, end).trim();
+        parseTags(formattedTags);
     }
 
     /**
@@ -79,12 +203,34 @@ public class Task {
         return this.description;
     }
 
+    /**
+     * Encodes the task's fields as they are stored after its type and status, separated by {@code |},
+     * with any {@code |} within a field escaped.
+     *
+     * @return The task's stored fields.
+     */
+    public String encodeFields() {
+        return StoredFields.escape(this.description);
+    }
+
+    /**
+     * Gets the description of the task alone, without any of the details subclasses add to {@link #getDesc()}.
+     *
+     * @return The description of the task.
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
     /**
      * Converts the task to a string representation.
      *
      * @return The string representation of the task.
      */
     public String toString() {
-        return "[" + this.getStatusIcon() + "] " + this.description;
+        if (this.tags.isEmpty()) {
+            return "[" + this.getStatusIcon() + "] " + this.description;
+        }
+        return "[" + this.getStatusIcon() + "] " + this.description + " " + formatTags();
     }
 }
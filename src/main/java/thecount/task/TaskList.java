@@ -1,17 +1,78 @@
 package thecount.task;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
 
 import thecount.exception.TheCountException;
+import thecount.ui.PrintAgenda;
 import thecount.ui.PrintList;
 import thecount.ui.RemoveFromListReply;
 import thecount.ui.Reply;
 
 /**
  * Represents a list of tasks.
+ * Commands refer to a task by its 1-based position, or by its id, which never changes.
+ * Deleting a task leaves a tombstone in its slot instead of shifting the tasks after it;
+ * a Fenwick tree over the slots maps positions to slots until the tombstones are swept out,
+ * which a background thread does once they outnumber the tasks. Reading the whole list skips the tombstones
+ * rather than sweeping them out.
+ * Tasks may be loaded lazily from a {@link TaskSource}, in which case each one is only built
+ * the first time a command touches it.
+ * Searches go through a keyword index, queries on tags through a tag index, queries on deadline dates
+ * through a deadline index, and queries on event times through an interval tree.
+ * Queries on dates also go through the ids of the recurring tasks, whose occurrences are worked out
+ * only for the dates asked about.
+ * Each index is built the first time it is needed and kept up to date from then on.
+ * <p>
+ * A task list is safe to share between threads. Changes lock the list's monitor, so they run one at a time;
+ * callers that need several calls to act as one, such as a change and the record of it, hold the monitor around
+ * them. Tasks are never changed in place: a change puts a changed copy in the task's slot, so the tasks already
+ * handed out stay as they were. {@link #getTasks()} hands out an immutable snapshot of the list, taken by the
+ * first reader after a change and shared without locking until the next change, so the storage writer and
+ * readers such as {@code list} never see a half-made change. A snapshot shares the chunks of the list that no
+ * change has touched with the one before it, so taking one only gathers the tasks of the chunks changed.
+ * Indexes may still hold the copy a task had before it was changed, so the tasks they find are looked up again
+ * by id.
  */
 public class TaskList {
+    /** Sweeps tombstones out of every task list, one list at a time, off the threads that change them. */
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-list-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** The number of slots in each chunk of a snapshot. */
+    private static final int SNAPSHOT_CHUNK_SIZE = 256;
+
     private ArrayList<Task> tasks;
+    private final HashMap<Long, Task> tasksById = new HashMap<>();
+    private final BitSet deletedSlots = new BitSet();
+    private int deletedCount;
+    private FenwickTree liveSlots;
+    private TaskSource source;
+    private KeywordIndex keywordIndex;
+    private TagIndex tagIndex;
+    private DeadlineIndex deadlineIndex;
+    private EventIndex eventIndex;
+    private TreeSet<Long> recurringIds;
+    private long nextId = 1;
+    private boolean isCompactionScheduled;
+    private volatile List<Task> snapshot = List.of();
+    /** The live tasks of each chunk of slots as last taken for a snapshot, or null where a slot has changed since. */
+    private final ArrayList<List<Task>> snapshotChunks = new ArrayList<>();
 
     /**
      * Constructs a new empty task list.
@@ -21,30 +82,459 @@ public class TaskList {
     }
 
     /**
-     * Adds a task to the list.
+     * Adds a task to the list, giving it a new id unless it already has one after every id in the list.
      *
      * @param task The task to add.
      */
-    public void add(Task task) {
+    public synchronized void add(Task task) {
+        if (task.getId() < this.nextId) {
+            task.setId(this.nextId);
+        }
+        this.nextId = task.getId() + 1;
+        append(task);
+    }
+
+    private void append(Task task) {
+        invalidateSnapshot(this.tasks.size());
         this.tasks.add(task);
+        this.tasksById.put(task.getId(), task);
+        if (this.liveSlots != null) {
+            this.liveSlots.append();
+        }
+        index(task);
     }
 
     /**
-     * Prints the list of tasks.
+     * Puts tasks back into the list by their ids, as undoing a change does.
+     * A task with the same id as one in the list replaces it. Any other task is put back between the tasks
+     * with the ids around its own, reviving the tombstone its deletion left if that is still there;
+     * the rest are merged into the list in one pass.
+     *
+     * @param tasksToPut The tasks to put back, keeping their ids.
      */
-    public String printList() {
-        Reply replyToUser = new PrintList(this.tasks);
-        return replyToUser.displayMessage();
+    public synchronized void putTasks(List<Task> tasksToPut) {
+        loadAll();
+        List<Task> missing = new ArrayList<>();
+        for (Task task : tasksToPut) {
+            assert task.getId() > 0 : "Only a task with an id can be put back";
+            Task existing = this.tasksById.get(task.getId());
+            if (existing != null) {
+                unindex(existing);
+                int slot = slotOfId(task.getId());
+                invalidateSnapshot(slot);
+                this.tasks.set(slot, task);
+                this.tasksById.put(task.getId(), task);
+                index(task);
+            } else if (!reviveTombstone(task)) {
+                missing.add(task);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        missing.sort(Comparator.comparingLong(Task::getId));
+        this.nextId = Math.max(this.nextId, missing.get(missing.size() - 1).getId() + 1);
+        if (this.tasks.isEmpty() || missing.get(0).getId() > this.tasks.get(this.tasks.size() - 1).getId()) {
+            for (Task task : missing) {
+                append(task);
+            }
+            return;
+        }
+        compact();
+        invalidateSnapshot();
+        ArrayList<Task> merged = new ArrayList<>(this.tasks.size() + missing.size());
+        int next = 0;
+        for (Task task : this.tasks) {
+            while (next < missing.size() && missing.get(next).getId() < task.getId()) {
+                merged.add(missing.get(next++));
+            }
+            merged.add(task);
+        }
+        merged.addAll(missing.subList(next, missing.size()));
+        this.tasks = merged;
+        for (Task task : missing) {
+            this.tasksById.put(task.getId(), task);
+            index(task);
+        }
+    }
+
+    /**
+     * Puts a deleted task back in the tombstone its deletion left, if that is still there.
+     */
+    private boolean reviveTombstone(Task task) {
+        int slot = findSlotFor(task.getId());
+        if (slot == this.tasks.size() || this.tasks.get(slot).getId() != task.getId()
+                || !this.deletedSlots.get(slot)) {
+            return false;
+        }
+        invalidateSnapshot(slot);
+        this.tasks.set(slot, task);
+        this.deletedSlots.clear(slot);
+        this.deletedCount--;
+        this.liveSlots.restore(slot);
+        this.tasksById.put(task.getId(), task);
+        index(task);
+        return true;
+    }
+
+    /**
+     * Finds the first slot whose task has an id of at least the given one. Every task must be loaded.
+     */
+    private int findSlotFor(long id) {
+        int low = 0;
+        int high = this.tasks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.tasks.get(middle).getId() < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void index(Task task) {
+        if (this.keywordIndex != null) {
+            this.keywordIndex.add(task);
+        }
+        if (this.tagIndex != null) {
+            this.tagIndex.add(task);
+        }
+        if (this.deadlineIndex != null) {
+            this.deadlineIndex.add(task);
+        }
+        if (this.eventIndex != null) {
+            this.eventIndex.add(task);
+        }
+        if (this.recurringIds != null && task instanceof Recurring) {
+            this.recurringIds.add(task.getId());
+        }
+    }
+
+    private void unindex(Task task) {
+        unindexTags(task);
+        if (this.deadlineIndex != null) {
+            this.deadlineIndex.remove(task);
+        }
+        if (this.eventIndex != null) {
+            this.eventIndex.remove(task);
+        }
+        if (this.recurringIds != null) {
+            this.recurringIds.remove(task.getId());
+        }
+    }
+
+    /**
+     * Adds placeholders for tasks to be loaded from the source when first used.
+     * Slots in the list match positions in the source until the tombstones are swept out, which loads every task.
+     * Tasks without a stored id are given their 1-based position in the source.
+     *
+     * @param source The source to load tasks from.
+     * @param count The number of tasks in the source.
+     */
+    public synchronized void addLazily(TaskSource source, int count) {
+        assert this.tasks.isEmpty() : "Lazy tasks must be added to an empty list";
+        invalidateSnapshot();
+        this.source = source;
+        this.tasks.addAll(Collections.nCopies(count, null));
+        if (count > 0) {
+            // Ids increase along the list, so the last task holds the largest
+            this.nextId = get(count - 1).getId() + 1;
+        }
     }
 
     /**
-     * Retrieves the list of tasks to write to file.
+     * Puts a changed copy of a task in the task's slot.
+     */
+    private void replace(int slot, Task task) {
+        invalidateSnapshot(slot);
+        this.tasks.set(slot, task);
+        this.tasksById.put(task.getId(), task);
+    }
+
+    /**
+     * Forgets the snapshot of the list and the chunk holding the given slot, so the next reader takes a fresh
+     * snapshot that gathers the tasks of that chunk again. Called before every change to a slot.
+     */
+    private void invalidateSnapshot(int slot) {
+        this.snapshot = null;
+        int chunk = slot / SNAPSHOT_CHUNK_SIZE;
+        if (chunk < this.snapshotChunks.size()) {
+            this.snapshotChunks.set(chunk, null);
+        }
+    }
+
+    /**
+     * Forgets the snapshot of the list and every chunk of it. Called before the slots are laid out anew.
+     */
+    private void invalidateSnapshot() {
+        this.snapshot = null;
+        this.snapshotChunks.clear();
+    }
+
+    /**
+     * Gets the task in the given slot, loading it from the source if needed.
+     */
+    private Task get(int slot) {
+        Task task = this.tasks.get(slot);
+        if (task == null) {
+            task = this.source.load(slot);
+            if (task.getId() == 0) {
+                task.setId(slot + 1);
+            }
+            this.tasks.set(slot, task);
+            this.tasksById.put(task.getId(), task);
+        }
+        return task;
+    }
+
+    /**
+     * Finds the slot holding the task at the given position.
      *
-     * @return The list of tasks in string format.
+     * @param position The 1-based position of the task among the tasks not deleted.
+     * @throws TheCountException If there is no task at that position.
      */
-    public String getListToWrite() {
-        PrintList replyToUser = new PrintList(this.tasks);
-        return replyToUser.getListToWrite();
+    private int slotOf(int position) throws TheCountException {
+        if (position < 1 || position > length()) {
+            throw new TheCountException("Invalid task number. I can't count that!");
+        }
+        return this.liveSlots == null ? position - 1 : this.liveSlots.findSlot(position);
+    }
+
+    /**
+     * Gets the id of the task at the given position.
+     *
+     * @param i The (index + 1) of the task.
+     * @return The id of the task.
+     * @throws TheCountException If the task index is invalid.
+     */
+    public synchronized long getIdAt(int i) throws TheCountException {
+        return get(slotOf(i)).getId();
+    }
+
+    /**
+     * Gets the ids of the tasks at the given positions.
+     *
+     * @param positions The (index + 1) of each task.
+     * @return The id of each task, in the same order.
+     * @throws TheCountException If any task index is invalid.
+     */
+    public synchronized long[] getIdsAt(int[] positions) throws TheCountException {
+        long[] ids = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            ids[i] = getIdAt(positions[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the tasks at the given positions.
+     *
+     * @param positions The (index + 1) of each task.
+     * @return The tasks, in the same order as the positions.
+     * @throws TheCountException If any task index is invalid.
+     */
+    public synchronized List<Task> getTasksAt(int[] positions) throws TheCountException {
+        List<Task> found = new ArrayList<>(positions.length);
+        for (int slot : slotsOf(positions)) {
+            found.add(get(slot));
+        }
+        return found;
+    }
+
+    /**
+     * Finds the positions of the tasks meeting a condition.
+     *
+     * @param condition The condition to check each task against.
+     * @return The (index + 1) of each task meeting the condition, in increasing order.
+     */
+    public int[] findPositions(Predicate<Task> condition) {
+        List<Task> liveTasks = getTasks();
+        int[] positions = new int[liveTasks.size()];
+        int count = 0;
+        for (int i = 0; i < liveTasks.size(); i++) {
+            if (condition.test(liveTasks.get(i))) {
+                positions[count++] = i + 1;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Finds the position of the task with the given id.
+     * With lazy loading, every task is loaded the first time an id is looked up.
+     *
+     * @param id The id of the task.
+     * @return The (index + 1) of the task.
+     * @throws TheCountException If no task in the list has that id.
+     */
+    public synchronized int positionOf(long id) throws TheCountException {
+        loadAll();
+        Task task = this.tasksById.get(id);
+        if (task == null) {
+            throw new TheCountException("There is no task @" + id + ". I can't count that!");
+        }
+        int slot = slotOfId(id);
+        return this.liveSlots == null ? slot + 1 : this.liveSlots.countLive(slot + 1);
+    }
+
+    /**
+     * Finds the slot of the task with the given id, relying on ids increasing along the slots.
+     * Every task must be loaded.
+     */
+    private int slotOfId(long id) {
+        int low = 0;
+        int high = this.tasks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = this.tasks.get(middle).getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        throw new IllegalStateException("No task with id " + id);
+    }
+
+    /**
+     * Loads every task not yet loaded and releases the source.
+     */
+    private void loadAll() {
+        if (this.source == null) {
+            return;
+        }
+        for (int i = 0; i < this.tasks.size(); i++) {
+            get(i);
+        }
+        this.source = null;
+    }
+
+    /**
+     * Gets the tasks not deleted, in order, skipping the tombstones.
+     */
+    private List<Task> liveTasks() {
+        loadAll();
+        if (this.deletedCount == 0) {
+            return this.tasks;
+        }
+        ArrayList<Task> liveTasks = new ArrayList<>(length());
+        for (int slot = 0; slot < this.tasks.size(); slot++) {
+            if (!this.deletedSlots.get(slot)) {
+                liveTasks.add(this.tasks.get(slot));
+            }
+        }
+        return liveTasks;
+    }
+
+    /**
+     * Marks the task in the given slot as deleted, leaving a tombstone in its slot.
+     */
+    private void markDeleted(int slot, Task task) {
+        invalidateSnapshot(slot);
+        if (this.liveSlots == null) {
+            this.liveSlots = new FenwickTree(this.tasks.size());
+        }
+        this.liveSlots.remove(slot);
+        this.deletedSlots.set(slot);
+        this.deletedCount++;
+        this.tasksById.remove(task.getId());
+        unindex(task);
+        if (this.deletedCount > length()) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Has the background thread sweep out the tombstones, unless it is already due to.
+     */
+    private void scheduleCompaction() {
+        if (this.isCompactionScheduled) {
+            return;
+        }
+        this.isCompactionScheduled = true;
+        COMPACTOR.execute(this::compactInBackground);
+    }
+
+    private synchronized void compactInBackground() {
+        this.isCompactionScheduled = false;
+        if (this.deletedCount > length()) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes the tombstones left by deletions in one pass.
+     * Positions do not change, so neither does the snapshot of the list.
+     */
+    private void compact() {
+        loadAll();
+        ArrayList<Task> liveTasks = new ArrayList<>(length());
+        for (int slot = 0; slot < this.tasks.size(); slot++) {
+            if (!this.deletedSlots.get(slot)) {
+                liveTasks.add(this.tasks.get(slot));
+            }
+        }
+        this.tasks = liveTasks;
+        this.snapshotChunks.clear();
+        this.deletedSlots.clear();
+        this.deletedCount = 0;
+        this.liveSlots = null;
+    }
+
+    /**
+     * Prints one page of the list of tasks.
+     * The page is read from the snapshot of the list if there is one; otherwise only the tasks on the page
+     * are loaded, under the list's lock.
+     *
+     * @param page The 1-based number of the page to print.
+     * @param pageSize The number of tasks on each page.
+     * @param isShowingIds Specifies if each task's id should be shown.
+     * @throws TheCountException If there is no such page.
+     */
+    public String printList(int page, int pageSize, boolean isShowingIds) throws TheCountException {
+        assert pageSize > 0 : "Page size must be positive";
+        List<Task> current = this.snapshot;
+        if (current == null) {
+            synchronized (this) {
+                return printPage(page, pageSize, isShowingIds, null);
+            }
+        }
+        return printPage(page, pageSize, isShowingIds, current);
+    }
+
+    /**
+     * Prints one page of the given snapshot of the list, or of the list itself if the snapshot is null,
+     * in which case the list's lock must be held.
+     */
+    private String printPage(int page, int pageSize, boolean isShowingIds, List<Task> current)
+            throws TheCountException {
+        int length = current == null ? length() : current.size();
+        int pageCount = Math.max(1, (length + pageSize - 1) / pageSize);
+        if (page < 1 || page > pageCount) {
+            throw new TheCountException("There is no page " + page + ". I can only count "
+                    + pageCount + " page(s)!");
+        }
+        int from = (page - 1) * pageSize;
+        int count = Math.min(pageSize, length - from);
+        List<Task> pageTasks;
+        if (current != null) {
+            pageTasks = current.subList(from, from + count);
+        } else {
+            pageTasks = new ArrayList<>(count);
+            if (count > 0) {
+                for (int slot = slotOf(from + 1); pageTasks.size() < count; slot++) {
+                    if (!this.deletedSlots.get(slot)) {
+                        pageTasks.add(get(slot));
+                    }
+                }
+            }
+        }
+        Reply replyToUser = new PrintList(pageTasks, from + 1, page, pageCount, isShowingIds);
+        return replyToUser.displayMessage();
     }
 
     /**
@@ -54,12 +544,14 @@ public class TaskList {
      * @param isAnnounced Specifies if the action should be announced.
      * @throws TheCountException If the task index is invalid.
      */
-    public String markTask(int i, boolean isAnnounced) throws TheCountException {
-        if (i < 1 || i > tasks.size()) {
-            throw new TheCountException("Invalid task number. I can't count that!");
-        }
-        Task currTask = this.tasks.get(i - 1);
+    public synchronized String markTask(int i, boolean isAnnounced) throws TheCountException {
+        int slot = slotOf(i);
+        Task currTask = get(slot).copy();
         currTask.markAsDone();
+        replace(slot, currTask);
+        if (this.deadlineIndex != null) {
+            this.deadlineIndex.remove(currTask);
+        }
         if (isAnnounced) {
             Reply replyToUser = new Reply("Ah-ah-ah! ONE! I've marked this task as done:\n"
                     + "" + currTask.toString());
@@ -75,12 +567,14 @@ public class TaskList {
      * @param isAnnounced Specifies if the action should be announced.
      * @throws TheCountException If the task index is invalid.
      */
-    public String unmarkTask(int i, boolean isAnnounced) throws TheCountException {
-        if (i < 1 || i > tasks.size()) {
-            throw new TheCountException("Invalid task number. I can't count that!");
-        }
-        Task currTask = this.tasks.get(i - 1);
+    public synchronized String unmarkTask(int i, boolean isAnnounced) throws TheCountException {
+        int slot = slotOf(i);
+        Task currTask = get(slot).copy();
         currTask.unmark();
+        replace(slot, currTask);
+        if (this.deadlineIndex != null) {
+            this.deadlineIndex.add(currTask);
+        }
         if (isAnnounced) {
             Reply replyToUser = new Reply("MINUS ONE! I've marked this task as not done yet:\n"
                     + "" + currTask.toString());
@@ -90,24 +584,214 @@ public class TaskList {
     }
 
     /**
-     * Tags a task with a message.
+     * Marks one occurrence of a recurring task as done or not done, leaving its other occurrences as they are.
+     *
+     * @param i The (index + 1) of the recurring task.
+     * @param date The date of the occurrence.
+     * @param isDone Specifies if the occurrence is done.
+     * @return A message naming the occurrence.
+     * @throws TheCountException If the task index is invalid, the task is not recurring,
+     *     or it does not occur on that date.
+     */
+    public synchronized String markOccurrence(int i, LocalDate date, boolean isDone) throws TheCountException {
+        int slot = slotOf(i);
+        Task task = get(slot);
+        if (!(task instanceof Recurring)) {
+            throw new TheCountException("Only recurring tasks have dates to mark. I can't count that!");
+        }
+        if (!((Recurring) task).occursOn(date)) {
+            throw new TheCountException("This task doesn't happen on " + date + ". I can't count that!");
+        }
+        unindexTags(task);
+        Recurring currTask = ((Recurring) task).copy();
+        if (isDone) {
+            currTask.markOccurrence(date);
+        } else {
+            currTask.unmarkOccurrence(date);
+        }
+        replace(slot, currTask);
+        indexTags(currTask);
+        String message = isDone ? "Ah-ah-ah! ONE! I've marked this task as done on " + date + ":\n"
+                : "MINUS ONE! I've marked this task as not done yet on " + date + ":\n";
+        return new Reply(message + currTask.occurrenceOn(date)).displayMessage();
+    }
+
+    /**
+     * Tags a task with one or more tags.
      *
      * @param i The index of the task to tag.
-     * @param message The message to tag the task with.
+     * @param message The tags to add, separated by spaces, with or without a leading {@code #}.
      * @return A message indicating that the task has been tagged.
-     * @throws TheCountException If the task number is invalid.
+     * @throws TheCountException If the task number is invalid or there are no tags.
      */
-    public String tagTask(int i, String message) throws TheCountException {
-        if (i < 1 || i > tasks.size()) {
-            throw new TheCountException("Invalid task number. I can't count that!");
+    public synchronized String tagTask(int i, String message) throws TheCountException {
+        List<String> tags = parseTagNames(message);
+        int slot = slotOf(i);
+        Task currTask = get(slot);
+        unindexTags(currTask);
+        currTask = currTask.copy();
+        for (String tag : tags) {
+            currTask.tag(tag);
         }
-        Task currTask = this.tasks.get(i - 1);
-        currTask.tag(message);
+        replace(slot, currTask);
+        indexTags(currTask);
         Reply replyToUser = new Reply("I've tagged this task:\n"
                 + "" + currTask.toString());
         return replyToUser.displayMessage();
     }
 
+    /**
+     * Removes one or more tags from a task.
+     *
+     * @param i The index of the task to untag.
+     * @param message The tags to remove, separated by spaces, with or without a leading {@code #}.
+     * @return A message indicating that the task has been untagged.
+     * @throws TheCountException If the task number is invalid or the task lacks one of the tags.
+     */
+    public synchronized String untagTask(int i, String message) throws TheCountException {
+        List<String> tags = parseTagNames(message);
+        int slot = slotOf(i);
+        Task currTask = get(slot);
+        for (String tag : tags) {
+            if (!currTask.getTags().contains(tag)) {
+                throw new TheCountException("This task isn't tagged #" + tag + ". I can't count that!");
+            }
+        }
+        unindexTags(currTask);
+        currTask = currTask.copy();
+        for (String tag : tags) {
+            currTask.untag(tag);
+        }
+        replace(slot, currTask);
+        indexTags(currTask);
+        Reply replyToUser = new Reply("I've untagged this task:\n"
+                + "" + currTask.toString());
+        return replyToUser.displayMessage();
+    }
+
+    private static List<String> parseTagNames(String message) throws TheCountException {
+        List<String> tags = new ArrayList<>();
+        for (String word : message.trim().split("\\s+")) {
+            String tag = word.replaceFirst("^#+", "");
+            if (tag.contains("|")) {
+                throw new TheCountException("Tags cannot contain |. I can't count that!");
+            }
+            if (!tag.isEmpty()) {
+                tags.add(tag);
+            }
+        }
+        if (tags.isEmpty()) {
+            throw new TheCountException("Tag cannot be empty. Please provide a tag.");
+        }
+        return tags;
+    }
+
+    private void unindexTags(Task task) {
+        if (this.keywordIndex != null) {
+            this.keywordIndex.remove(task);
+        }
+        if (this.tagIndex != null) {
+            this.tagIndex.remove(task);
+        }
+    }
+
+    private void indexTags(Task task) {
+        if (this.keywordIndex != null) {
+            this.keywordIndex.add(task);
+        }
+        if (this.tagIndex != null) {
+            this.tagIndex.add(task);
+        }
+    }
+
+    /**
+     * Marks several tasks as done in one pass.
+     *
+     * @param positions The (index + 1) of each task to mark.
+     * @return A message indicating how many tasks were marked.
+     * @throws TheCountException If any task index is invalid, in which case no task is marked.
+     */
+    public synchronized String markTasks(int[] positions) throws TheCountException {
+        for (int slot : slotsOf(positions)) {
+            Task currTask = get(slot).copy();
+            currTask.markAsDone();
+            replace(slot, currTask);
+            if (this.deadlineIndex != null) {
+                this.deadlineIndex.remove(currTask);
+            }
+        }
+        return new Reply("Ah-ah-ah! " + positions.length + "! I've marked " + positions.length
+                + " tasks as done.").displayMessage();
+    }
+
+    /**
+     * Marks several tasks as not done in one pass.
+     *
+     * @param positions The (index + 1) of each task to unmark.
+     * @return A message indicating how many tasks were unmarked.
+     * @throws TheCountException If any task index is invalid, in which case no task is unmarked.
+     */
+    public synchronized String unmarkTasks(int[] positions) throws TheCountException {
+        for (int slot : slotsOf(positions)) {
+            Task currTask = get(slot).copy();
+            currTask.unmark();
+            replace(slot, currTask);
+            if (this.deadlineIndex != null) {
+                this.deadlineIndex.add(currTask);
+            }
+        }
+        return new Reply("MINUS " + positions.length + "! I've marked " + positions.length
+                + " tasks as not done yet.").displayMessage();
+    }
+
+    /**
+     * Tags several tasks in one pass.
+     *
+     * @param positions The (index + 1) of each task to tag.
+     * @param message The tags to add, separated by spaces, with or without a leading {@code #}.
+     * @return A message indicating how many tasks were tagged.
+     * @throws TheCountException If any task index is invalid or there are no tags, in which case no task is tagged.
+     */
+    public synchronized String tagTasks(int[] positions, String message) throws TheCountException {
+        List<String> tags = parseTagNames(message);
+        for (int slot : slotsOf(positions)) {
+            Task currTask = get(slot);
+            unindexTags(currTask);
+            currTask = currTask.copy();
+            for (String tag : tags) {
+                currTask.tag(tag);
+            }
+            replace(slot, currTask);
+            indexTags(currTask);
+        }
+        return new Reply("I've tagged " + positions.length + " tasks with #" + String.join(" #", tags) + ".")
+                .displayMessage();
+    }
+
+    /**
+     * Deletes several tasks in one pass.
+     *
+     * @param positions The distinct (index + 1) of each task to delete.
+     * @return A message indicating how many tasks were deleted.
+     * @throws TheCountException If any task index is invalid, in which case no task is deleted.
+     */
+    public synchronized String deleteTasks(int[] positions) throws TheCountException {
+        for (int slot : slotsOf(positions)) {
+            markDeleted(slot, get(slot));
+        }
+        return new RemoveFromListReply(positions.length, length()).displayMessage();
+    }
+
+    /**
+     * Finds the slots holding the tasks at the given positions, checking every position before any is used.
+     */
+    private int[] slotsOf(int[] positions) throws TheCountException {
+        int[] slots = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            slots[i] = slotOf(positions[i]);
+        }
+        return slots;
+    }
 
     /**
      * Deletes a task from the list.
@@ -115,30 +799,329 @@ public class TaskList {
      * @param i The index of the task to delete.
      * @throws TheCountException If the task index is invalid.
      */
-    public String deleteTask(int i) throws TheCountException {
-        if (i < 1 || i > tasks.size()) {
+    public synchronized String deleteTask(int i) throws TheCountException {
+        if (i < 1 || i > length()) {
             throw new TheCountException("Invalid task number. I can't delete that!");
         }
-        Task currTask = this.tasks.get(i - 1);
-        this.tasks.remove(i - 1);
-        Reply replyToUser = new RemoveFromListReply(currTask.toString(), this.tasks.size());
+        int slot = slotOf(i);
+        Task currTask = get(slot);
+        markDeleted(slot, currTask);
+        Reply replyToUser = new RemoveFromListReply(currTask.toString(), length());
         return replyToUser.displayMessage();
     }
 
     /**
-     * Finds tasks containing the specified keyword (non case-sensitive).
+     * Finds tasks with words starting with each word of the keyword (non case-sensitive).
+     * Falls back to a substring search if the keyword has no words, e.g. only punctuation.
      *
      * @param keyword The keyword to search for.
      */
     public String findTask(String keyword) {
+        return printFoundTasks(searchTasks(keyword));
+    }
+
+    /**
+     * Gets the tasks with words starting with each word of the keyword (non case-sensitive),
+     * or containing the keyword anywhere if it has no words.
+     *
+     * @param keyword The keyword to search for.
+     * @return The matching tasks, in list order.
+     */
+    public List<Task> searchTasks(String keyword) {
+        List<Task> foundTasks;
+        synchronized (this) {
+            if (this.keywordIndex == null) {
+                buildKeywordIndex();
+            }
+            foundTasks = this.keywordIndex.find(keyword);
+            if (foundTasks != null) {
+                lookUpCurrent(foundTasks);
+            }
+        }
+        return foundTasks != null ? foundTasks : searchTasksBySubstring(keyword);
+    }
+
+    /**
+     * Replaces each task an index found with the task now in the list with its id, in case it has changed since
+     * it was indexed. The list's lock must be held.
+     */
+    private void lookUpCurrent(List<Task> foundTasks) {
+        foundTasks.replaceAll(task -> this.tasksById.get(task.getId()));
+    }
+
+    /**
+     * Finds tasks containing the specified keyword anywhere in their description (non case-sensitive).
+     * This scans every task.
+     *
+     * @param keyword The keyword to search for.
+     */
+    public String findTaskBySubstring(String keyword) {
+        return printFoundTasks(searchTasksBySubstring(keyword));
+    }
+
+    private List<Task> searchTasksBySubstring(String keyword) {
         ArrayList<Task> foundTasks = new ArrayList<>();
         keyword = keyword.toLowerCase();
 
-        for (Task task : this.tasks) {
+        for (Task task : getTasks()) {
             if (task.getDesc().toLowerCase().contains(keyword)) {
                 foundTasks.add(task);
             }
         }
+        return foundTasks;
+    }
+
+    private void buildKeywordIndex() {
+        this.keywordIndex = new KeywordIndex();
+        for (Task task : liveTasks()) {
+            this.keywordIndex.add(task);
+        }
+    }
+
+    /**
+     * Gets the tasks with the given tag.
+     *
+     * @param tag The tag name, without the leading {@code #}.
+     * @return The tasks with the tag, in list order.
+     */
+    public synchronized List<Task> getTaggedTasks(String tag) {
+        if (this.tagIndex == null) {
+            buildTagIndex();
+        }
+        BitSet ids = this.tagIndex.find(tag);
+        List<Task> taggedTasks = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            taggedTasks.add(this.tasksById.get((long) id));
+        }
+        return taggedTasks;
+    }
+
+    /**
+     * Lists the tasks with the given tag.
+     *
+     * @param tag The tag name, without the leading {@code #}.
+     */
+    public String printTaggedTasks(String tag) {
+        List<Task> taggedTasks = getTaggedTasks(tag);
+        if (taggedTasks.isEmpty()) {
+            return new Reply("I can't find any tasks tagged #" + tag + ".").displayMessage();
+        }
+        return new PrintList(taggedTasks).displayMessage();
+    }
+
+    /**
+     * Lists every tag with the number of tasks carrying it.
+     */
+    public String printTags() {
+        Map<String, Integer> counts;
+        synchronized (this) {
+            if (this.tagIndex == null) {
+                buildTagIndex();
+            }
+            counts = this.tagIndex.count();
+        }
+        if (counts.isEmpty()) {
+            return new Reply("You have no tags yet. Try `tag 1 work`!").displayMessage();
+        }
+        StringBuilder message = new StringBuilder("Here are your tags:");
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            message.append("\n#").append(entry.getKey()).append(": ").append(entry.getValue()).append(" task(s)");
+        }
+        return new Reply(message.toString()).displayMessage();
+    }
+
+    private void buildTagIndex() {
+        this.tagIndex = new TagIndex();
+        for (Task task : liveTasks()) {
+            this.tagIndex.add(task);
+        }
+    }
+
+    /**
+     * Gets the deadlines not yet done that are due from one date up to, but not including, another.
+     *
+     * @param from The earliest date to include, or null for no earliest date.
+     * @param before The date to stop before, or null for no latest date.
+     * @return The deadlines due in the range, by date and then in list order.
+     */
+    public synchronized List<Task> getDeadlinesDue(LocalDate from, LocalDate before) {
+        if (this.deadlineIndex == null) {
+            buildDeadlineIndex();
+        }
+        List<Task> dueTasks = this.deadlineIndex.findDue(from, before);
+        lookUpCurrent(dueTasks);
+        return dueTasks;
+    }
+
+    /**
+     * Finds the deadlines not yet done that are due from one date up to, but not including, another.
+     *
+     * @param from The earliest date to include, or null for no earliest date.
+     * @param before The date to stop before, or null for no latest date.
+     */
+    public String findDeadlinesDue(LocalDate from, LocalDate before) {
+        return printFoundTasks(getDeadlinesDue(from, before));
+    }
+
+    private void buildDeadlineIndex() {
+        this.deadlineIndex = new DeadlineIndex();
+        for (Task task : liveTasks()) {
+            this.deadlineIndex.add(task);
+        }
+    }
+
+    /**
+     * Gets the occurrences of recurring tasks, not yet done, from one date up to, but not including, another.
+     * Only the occurrences in the range are worked out.
+     *
+     * @param from The earliest date to include, or null to start from each task's start.
+     * @param before The date to stop before.
+     * @return The occurrences in the range, by date and then in list order.
+     */
+    public synchronized List<Recurring.Occurrence> getOccurrences(LocalDate from, LocalDate before) {
+        assert before != null : "Occurrences are only listed up to a date";
+        if (this.recurringIds == null) {
+            buildRecurringIds();
+        }
+        List<Recurring.Occurrence> occurrences = new ArrayList<>();
+        for (long id : this.recurringIds) {
+            Recurring recurring = (Recurring) this.tasksById.get(id);
+            if (recurring.isDone()) {
+                continue;
+            }
+            Iterator<LocalDate> dates = recurring.occurrences(from, before);
+            while (dates.hasNext()) {
+                LocalDate date = dates.next();
+                if (!recurring.isDoneOn(date)) {
+                    occurrences.add(recurring.occurrenceOn(date));
+                }
+            }
+        }
+        // Stable, so occurrences on the same date stay in list order
+        occurrences.sort(Comparator.comparing(Recurring.Occurrence::getDate));
+        return occurrences;
+    }
+
+    /**
+     * Gets what is due from one date up to, but not including, another: the deadlines not yet done,
+     * and the occurrences of recurring tasks not yet done.
+     * Occurrences are listed from the start of the range, or from today if the range has no start,
+     * so that missed occurrences do not pile up.
+     *
+     * @param from The earliest date to include, or null for no earliest date.
+     * @param before The date to stop before.
+     * @return The deadlines and occurrences in the range, by date.
+     */
+    public List<Task> getDue(LocalDate from, LocalDate before) {
+        List<Task> deadlines = getDeadlinesDue(from, before);
+        List<Recurring.Occurrence> occurrences = getOccurrences(from == null ? LocalDate.now() : from, before);
+        List<Task> dueTasks = new ArrayList<>(deadlines.size() + occurrences.size());
+        int next = 0;
+        for (Task deadline : deadlines) {
+            LocalDate date = ((Deadline) deadline).getDeadlineDate();
+            while (next < occurrences.size() && occurrences.get(next).getDate().isBefore(date)) {
+                dueTasks.add(occurrences.get(next++));
+            }
+            dueTasks.add(deadline);
+        }
+        dueTasks.addAll(occurrences.subList(next, occurrences.size()));
+        return dueTasks;
+    }
+
+    /**
+     * Finds what is due from one date up to, but not including, another, as {@link #getDue} gets it.
+     *
+     * @param from The earliest date to include, or null for no earliest date.
+     * @param before The date to stop before.
+     */
+    public String findDue(LocalDate from, LocalDate before) {
+        return printFoundTasks(getDue(from, before));
+    }
+
+    /**
+     * Lists what is on each day from a date on: the deadlines not yet done, the events,
+     * and the occurrences of recurring tasks not yet done.
+     *
+     * @param from The first day.
+     * @param days The number of days.
+     */
+    public String printAgenda(LocalDate from, int days) {
+        LocalDate before = from.plusDays(days);
+        return new PrintAgenda(from, days, getDeadlinesDue(from, before),
+                getEventsDuring(from.atStartOfDay(), before.atStartOfDay()), getOccurrences(from, before))
+                .displayMessage();
+    }
+
+    private void buildRecurringIds() {
+        this.recurringIds = new TreeSet<>();
+        for (Task task : liveTasks()) {
+            if (task instanceof Recurring) {
+                this.recurringIds.add(task.getId());
+            }
+        }
+    }
+
+    /**
+     * Gets the scheduled events that overlap a range of time.
+     *
+     * @param from The start of the range.
+     * @param to The end of the range, which is not part of the range.
+     * @return The overlapping events, by start time and then in list order.
+     */
+    public synchronized List<Task> getEventsDuring(LocalDateTime from, LocalDateTime to) {
+        if (this.eventIndex == null) {
+            buildEventIndex();
+        }
+        List<Task> events = this.eventIndex.findOverlapping(from, to);
+        lookUpCurrent(events);
+        return events;
+    }
+
+    /**
+     * Finds the scheduled events that overlap a range of time.
+     *
+     * @param from The start of the range.
+     * @param to The end of the range, which is not part of the range.
+     */
+    public String findEventsDuring(LocalDateTime from, LocalDateTime to) {
+        return printFoundTasks(getEventsDuring(from, to));
+    }
+
+    /**
+     * Finds every pair of scheduled events that overlap each other.
+     */
+    public String findConflicts() {
+        List<Task[]> conflicts;
+        synchronized (this) {
+            if (this.eventIndex == null) {
+                buildEventIndex();
+            }
+            conflicts = this.eventIndex.findConflicts();
+            for (Task[] conflict : conflicts) {
+                conflict[0] = this.tasksById.get(conflict[0].getId());
+                conflict[1] = this.tasksById.get(conflict[1].getId());
+            }
+        }
+        if (conflicts.isEmpty()) {
+            return new Reply("No events overlap. Ah-ah-ah!").displayMessage();
+        }
+        StringBuilder message = new StringBuilder("These events overlap:");
+        for (int i = 0; i < conflicts.size(); i++) {
+            Task[] conflict = conflicts.get(i);
+            message.append('\n').append(i + 1).append('.').append(conflict[0])
+                    .append("\n  and ").append(conflict[1]);
+        }
+        return new Reply(message.toString()).displayMessage();
+    }
+
+    private void buildEventIndex() {
+        this.eventIndex = new EventIndex();
+        for (Task task : liveTasks()) {
+            this.eventIndex.add(task);
+        }
+    }
+
+    private String printFoundTasks(List<Task> foundTasks) {
         if (foundTasks.size() == 0) {
             Reply replyToUser = new Reply("I can't find any matching tasks.");
             return replyToUser.displayMessage();
@@ -148,12 +1131,55 @@ public class TaskList {
         }
     }
 
+    /**
+     * Gets a snapshot of the tasks in the list, which later changes to the list do not affect.
+     * The snapshot is shared until the list next changes, so this only locks the list the first time it is called
+     * after a change, and then only gathers the tasks of the chunks of the list that changed.
+     *
+     * @return The tasks in the list, in order, as an immutable list.
+     */
+    public List<Task> getTasks() {
+        List<Task> current = this.snapshot;
+        return current != null ? current : takeSnapshot();
+    }
+
+    private synchronized List<Task> takeSnapshot() {
+        if (this.snapshot == null) {
+            int chunkCount = (this.tasks.size() + SNAPSHOT_CHUNK_SIZE - 1) / SNAPSHOT_CHUNK_SIZE;
+            while (this.snapshotChunks.size() < chunkCount) {
+                this.snapshotChunks.add(null);
+            }
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                if (this.snapshotChunks.get(chunk) == null) {
+                    this.snapshotChunks.set(chunk, liveTasksOf(chunk));
+                }
+            }
+            this.snapshot = new TaskSnapshot(this.snapshotChunks);
+        }
+        return this.snapshot;
+    }
+
+    /**
+     * Gets the tasks not deleted in the given chunk of slots, loading them from the source if needed.
+     */
+    private List<Task> liveTasksOf(int chunk) {
+        int from = chunk * SNAPSHOT_CHUNK_SIZE;
+        int to = Math.min(from + SNAPSHOT_CHUNK_SIZE, this.tasks.size());
+        ArrayList<Task> liveTasks = new ArrayList<>(to - from);
+        for (int slot = from; slot < to; slot++) {
+            if (!this.deletedSlots.get(slot)) {
+                liveTasks.add(get(slot));
+            }
+        }
+        return liveTasks;
+    }
+
     /**
      * Gets the number of tasks in the list.
      *
      * @return The number of tasks in the list.
      */
-    public int length() {
-        return this.tasks.size();
+    public synchronized int length() {
+        return this.tasks.size() - this.deletedCount;
     }
 }
@@ -0,0 +1,58 @@
+package thecount.task;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable view of the tasks in a list, made of the live tasks of each chunk of the list's slots.
+ * A chunk no change has touched is shared with the snapshot taken before, so taking a snapshot after a change
+ * only gathers the tasks of the chunks that changed.
+ */
+class TaskSnapshot extends AbstractList<Task> {
+    private final List<List<Task>> chunks;
+    private final int[] ends;
+
+    /**
+     * Constructs a TaskSnapshot over the given chunks, none of which may change afterwards.
+     *
+     * @param chunks The live tasks of each chunk of slots, in order.
+     */
+    TaskSnapshot(List<List<Task>> chunks) {
+        this.chunks = List.copyOf(chunks);
+        this.ends = new int[this.chunks.size()];
+        int end = 0;
+        for (int i = 0; i < this.ends.length; i++) {
+            end += this.chunks.get(i).size();
+            this.ends[i] = end;
+        }
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size());
+        // Finds the first chunk ending after the index; chunks whose tasks were all deleted are empty
+        int low = 0;
+        int high = this.ends.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.ends[middle] <= index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return this.chunks.get(low).get(index - (low == 0 ? 0 : this.ends[low - 1]));
+    }
+
+    @Override
+    public int size() {
+        return this.ends.length == 0 ? 0 : this.ends[this.ends.length - 1];
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return this.chunks.stream().flatMap(List::stream).iterator();
+    }
+}
@@ -0,0 +1,14 @@
+package thecount.task;
+
+/**
+ * Represents a store that can build tasks on demand, so a task list can defer loading them until first use.
+ */
+public interface TaskSource {
+    /**
+     * Builds the task at the given position of the store.
+     *
+     * @param index The 0-based position of the task.
+     * @return The task.
+     */
+    Task load(int index);
+}
@@ -0,0 +1,168 @@
+package thecount.ui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps every message of a conversation, holding only the most recent ones in memory.
+ * Once there are too many, the oldest are spilled in batches to a scratch file, which is deleted on exit,
+ * and each is read back only when it is shown again. Messages keep their index when spilled.
+ */
+public class ChatHistory {
+    private static final int SPILL_BATCH = 64;
+    private static final byte FROM_USER = 'U';
+    private static final byte FROM_COUNT = 'C';
+
+    private final int retainedCount;
+    private final List<Entry> retained = new ArrayList<>();
+    private long[] spilledOffsets = new long[SPILL_BATCH + 1];
+    private int spilledCount;
+    private FileChannel spillFile;
+
+    /**
+     * Constructs an empty ChatHistory.
+     *
+     * @param retainedCount The number of most recent messages to keep in memory.
+     */
+    public ChatHistory(int retainedCount) {
+        assert retainedCount > 0 : "Retained message count must be positive";
+        this.retainedCount = retainedCount;
+    }
+
+    /**
+     * Adds a message to the end of the conversation, spilling the oldest messages held in memory if there are
+     * too many. If they cannot be spilled, they stay in memory.
+     *
+     * @param entry The message.
+     */
+    public void add(Entry entry) {
+        this.retained.add(entry);
+        if (this.retained.size() >= this.retainedCount + SPILL_BATCH) {
+            try {
+                spill();
+            } catch (IOException e) {
+                System.err.println(e);
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        if (this.spillFile == null) {
+            Path path = Files.createTempFile("the-count-chat", ".tmp");
+            path.toFile().deleteOnExit();
+            this.spillFile = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        List<Entry> spilled = this.retained.subList(0, SPILL_BATCH);
+        if (this.spilledCount + SPILL_BATCH >= this.spilledOffsets.length) {
+            this.spilledOffsets = Arrays.copyOf(this.spilledOffsets, this.spilledOffsets.length * 2);
+        }
+        List<byte[]> texts = new ArrayList<>(SPILL_BATCH);
+        int length = 0;
+        for (Entry entry : spilled) {
+            byte[] text = entry.getText().getBytes(StandardCharsets.UTF_8);
+            texts.add(text);
+            length += 1 + text.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long start = this.spilledOffsets[this.spilledCount];
+        for (int i = 0; i < SPILL_BATCH; i++) {
+            buffer.put(spilled.get(i).isFromUser() ? FROM_USER : FROM_COUNT).put(texts.get(i));
+            this.spilledOffsets[this.spilledCount + i + 1] = start + buffer.position();
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            this.spillFile.write(buffer, start + buffer.position());
+        }
+        this.spilledCount += SPILL_BATCH;
+        spilled.clear();
+    }
+
+    /**
+     * Gets a message, reading it back from the scratch file if it was spilled.
+     *
+     * @param index The index of the message, where 0 is the first.
+     * @return The message.
+     * @throws IndexOutOfBoundsException If there is no message at that index.
+     */
+    public Entry get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("No message " + index);
+        }
+        if (index >= this.spilledCount) {
+            return this.retained.get(index - this.spilledCount);
+        }
+        try {
+            return readSpilled(index);
+        } catch (IOException e) {
+            System.err.println(e);
+            return new Entry("(This message could not be read back.)", false);
+        }
+    }
+
+    private Entry readSpilled(int index) throws IOException {
+        long start = this.spilledOffsets[index];
+        ByteBuffer buffer = ByteBuffer.allocate((int) (this.spilledOffsets[index + 1] - start));
+        while (buffer.hasRemaining()) {
+            if (this.spillFile.read(buffer, start + buffer.position()) < 0) {
+                throw new IOException("The chat history file ended early");
+            }
+        }
+        buffer.flip();
+        boolean isFromUser = buffer.get() == FROM_USER;
+        return new Entry(StandardCharsets.UTF_8.decode(buffer).toString(), isFromUser);
+    }
+
+    /**
+     * Gets the number of messages, including those spilled.
+     *
+     * @return The number of messages.
+     */
+    public int size() {
+        return this.spilledCount + this.retained.size();
+    }
+
+    /**
+     * Gets the number of messages held in memory.
+     *
+     * @return The number of messages not spilled.
+     */
+    public int getRetainedCount() {
+        return this.retained.size();
+    }
+
+    /**
+     * Represents one message, from the user or from TheCount.
+     */
+    public static class Entry {
+        private final String text;
+        private final boolean isFromUser;
+
+        /**
+         * Constructs a message.
+         *
+         * @param text The text of the message.
+         * @param isFromUser Specifies if the user sent the message, rather than TheCount.
+         */
+        public Entry(String text, boolean isFromUser) {
+            this.text = text;
+            this.isFromUser = isFromUser;
+        }
+
+        public String getText() {
+            return this.text;
+        }
+
+        public boolean isFromUser() {
+            return this.isFromUser;
+        }
+    }
+}
@@ -25,13 +25,13 @@ public class Greeting extends Reply {
         super("Greetings. I am the Count.\n"
                 + "They call me the Count,\n"
                 + "because I LOVE to count... things.");
-        displayAsciiArt();
     }
 
     /**
      * Displays the ASCII art representing the Count.
+     * Only the text interface shows it, so constructing a greeting prints nothing.
      */
-    private void displayAsciiArt() {
+    public void displayAsciiArt() {
         System.out.println(ASCII_ART);
     }
 }
@@ -0,0 +1,83 @@
+package thecount.ui;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+import thecount.task.Deadline;
+import thecount.task.Event;
+import thecount.task.Recurring;
+import thecount.task.Task;
+
+/**
+ * Represents a reply listing what is on each day of a range of days, such as a week.
+ * Days with nothing on are left out.
+ */
+public class PrintAgenda extends Reply {
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("EEE MMM d yyyy", Locale.ENGLISH);
+
+    private LocalDate from;
+    private int days;
+    private List<Task> deadlines;
+    private List<Task> events;
+    private List<Recurring.Occurrence> occurrences;
+
+    /**
+     * Constructs a PrintAgenda object.
+     *
+     * @param from The first day.
+     * @param days The number of days.
+     * @param deadlines The deadlines due on those days, by date.
+     * @param events The scheduled events on those days, by start time.
+     * @param occurrences The occurrences of recurring tasks on those days, by date.
+     */
+    public PrintAgenda(LocalDate from, int days, List<Task> deadlines, List<Task> events,
+            List<Recurring.Occurrence> occurrences) {
+        super("Here's what's on:");
+        this.from = from;
+        this.days = days;
+        this.deadlines = deadlines;
+        this.events = events;
+        this.occurrences = occurrences;
+    }
+
+    /**
+     * Displays each day with something on, followed by what is on it.
+     */
+    @Override
+    public String displayMessage() {
+        StringBuilder message = new StringBuilder("Here's what's on from " + from.format(DAY) + ":");
+        int nextDeadline = 0;
+        int nextOccurrence = 0;
+        boolean isEmpty = true;
+        for (LocalDate day = from; day.isBefore(from.plusDays(days)); day = day.plusDays(1)) {
+            StringBuilder dayMessage = new StringBuilder();
+            while (nextDeadline < deadlines.size()
+                    && ((Deadline) deadlines.get(nextDeadline)).getDeadlineDate().equals(day)) {
+                dayMessage.append("\n  ").append(deadlines.get(nextDeadline++));
+            }
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+            for (Task task : events) {
+                Event event = (Event) task;
+                if (event.getStart().isBefore(dayEnd) && event.getEnd().isAfter(dayStart)) {
+                    dayMessage.append("\n  ").append(event);
+                }
+            }
+            while (nextOccurrence < occurrences.size() && occurrences.get(nextOccurrence).getDate().equals(day)) {
+                dayMessage.append("\n  ").append(occurrences.get(nextOccurrence++));
+            }
+            if (dayMessage.length() > 0) {
+                message.append('\n').append(day.format(DAY)).append(':').append(dayMessage);
+                isEmpty = false;
+            }
+        }
+        if (isEmpty) {
+            return new Reply("Nothing on from " + from.format(DAY) + " for " + days + " days. Ah-ah-ah!")
+                    .displayMessage();
+        }
+        return new Reply(message.toString()).displayMessage();
+    }
+}
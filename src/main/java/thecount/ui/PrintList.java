@@ -1,23 +1,48 @@
 package thecount.ui;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
 
+import thecount.task.StoredFields;
 import thecount.task.Task;
 
 /**
  * Represents a reply message displaying a list of tasks.
+ * Long lists are shown one page at a time.
  */
 public class PrintList extends Reply {
-    private ArrayList<Task> tasks;
+    private List<Task> tasks;
+    private int firstNumber;
+    private int pageNumber;
+    private int pageCount;
+    private boolean isShowingIds;
 
     /**
      * Constructs a PrintList object with the list of tasks.
      *
      * @param tasks The list of tasks to be displayed.
      */
-    public PrintList(ArrayList<Task> tasks) {
+    public PrintList(List<Task> tasks) {
+        this(tasks, 1, 1, 1, false);
+    }
+
+    /**
+     * Constructs a PrintList object showing one page of a longer list of tasks.
+     *
+     * @param tasks The tasks on the page.
+     * @param firstNumber The number of the first task on the page within the whole list.
+     * @param pageNumber The number of the page.
+     * @param pageCount The number of pages in the whole list.
+     * @param isShowingIds Specifies if each task's id should be shown, e.g. {@code 1.@12 [T][ ] read book}.
+     */
+    public PrintList(List<Task> tasks, int firstNumber, int pageNumber, int pageCount, boolean isShowingIds) {
         super("Here are the tasks in your list:");
         this.tasks = tasks;
+        this.firstNumber = firstNumber;
+        this.pageNumber = pageNumber;
+        this.pageCount = pageCount;
+        this.isShowingIds = isShowingIds;
     }
 
     /**
@@ -25,29 +50,45 @@ public class PrintList extends Reply {
      */
     @Override
     public String displayMessage() {
-        String message = "Here are the tasks in your list:";
+        StringBuilder message = new StringBuilder("Here are the tasks in your list:");
         for (int i = 0; i < tasks.size(); i++) {
-            String taskLine = (i + 1) + "." + tasks.get(i).toString();
-            message = message.concat("\n" + taskLine);
+            Task currTask = tasks.get(i);
+            message.append('\n').append(firstNumber + i).append('.');
+            if (isShowingIds) {
+                message.append('@').append(currTask.getId()).append(' ');
+            }
+            message.append(currTask.toString());
+        }
+        if (pageCount > 1) {
+            message.append("\nPage ").append(pageNumber).append(" of ").append(pageCount).append('.');
+            if (pageNumber < pageCount) {
+                message.append(" Type `list ").append(pageNumber + 1).append("` to count some more!");
+            }
         }
-        Reply replyToUser = new Reply(message);
+        Reply replyToUser = new Reply(message.toString());
         return replyToUser.displayMessage();
     }
 
     /**
-     * Retrieves the list of tasks to be written.
-     * To write to file, the list of tasks is formatted as a string.
+     * Writes the list of tasks in the data file format straight to the given writer,
+     * one line per task, without building the whole list in memory.
+     * Each line starts with the task's id, and the task's tags follow its other fields in a field of their own,
+     * left empty if it has none. Any {@code |} within a field is escaped.
      *
-     * @return The formatted list of tasks.
+     * @param writer The writer to write to.
+     * @throws IOException If the writer fails.
      */
-    public String getListToWrite() {
-        String message = "";
+    public void writeListTo(Writer writer) throws IOException {
         for (int i = 0; i < tasks.size(); i++) {
             Task currTask = tasks.get(i);
-            String taskLine = (i + 1) + " | " + currTask.getType() + " | "
-                    + (currTask.isDone() ? 1 : 0) + " | " + currTask.getDesc();
-            message = message.concat(taskLine + "\n");
+            writer.write(String.valueOf(currTask.getId()));
+            writer.write(" | ");
+            writer.write(currTask.getType());
+            writer.write(currTask.isDone() ? " | 1 | " : " | 0 | ");
+            writer.write(currTask.encodeFields());
+            writer.write(" | ");
+            writer.write(StoredFields.escape(currTask.formatTags()));
+            writer.write('\n');
         }
-        return message;
     }
 }
@@ -18,4 +18,17 @@ public class RemoveFromListReply extends Reply {
                 + currSize
                 + " task(s)!");
     }
+
+    /**
+     * Constructs a RemoveFromListReply object for several tasks removed at once.
+     *
+     * @param removedCount The number of tasks that have been removed.
+     * @param currSize The current size of the task list after removal.
+     */
+    public RemoveFromListReply(int removedCount, int currSize) {
+        super("Ah-ah-ah! I have removed " + removedCount + " tasks!\n"
+                + "You have one, two... "
+                + currSize
+                + " task(s)!");
+    }
 }
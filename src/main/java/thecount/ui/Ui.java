@@ -1,27 +1,10 @@
 package thecount.ui;
 
-import thecount.parser.Parser;
-import thecount.storage.Storage;
-import thecount.task.TaskList;
-
 /**
  * Represents the user interface of the application.
  */
 public class Ui {
-    private Parser parser;
-    private Storage loader;
-    private Reply greeting = new Greeting();
-
-    /**
-     * Constructs a new UI instance.
-     *
-     * @param tasks The task list to be managed by the UI.
-     * @param loader The storage component to interact with file storage.
-     */
-    public Ui(TaskList tasks, Storage loader) {
-        this.parser = new Parser(tasks, loader);
-        this.loader = loader;
-    }
+    private Greeting greeting = new Greeting();
 
     /**
      * Prints the greeting message to the user.
@@ -34,6 +17,7 @@ public class Ui {
      * Initiates the user interface and begins application execution.
      */
     public String run() {
+        greeting.displayAsciiArt();
         return printGreeting();
     }
 }
@@ -0,0 +1,33 @@
+package thecount.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesAreBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(3_000_000);
+
+        assertEquals(100L, histogram.getCount());
+        assertEquals(1024 / 1_000_000.0, histogram.getPercentileMillis(0.5));
+        assertEquals(1024 / 1_000_000.0, histogram.getPercentileMillis(0.99));
+        assertEquals(3.0, histogram.getPercentileMillis(1), "The top bucket is capped at the maximum");
+        assertEquals(3.0, histogram.getMaxMillis());
+        assertTrue(Math.abs(histogram.getMeanMillis() - 0.03099) < 1e-9, "Mean is exact");
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0.0, histogram.getMeanMillis());
+        assertEquals(0.0, histogram.getPercentileMillis(0.99));
+    }
+}
@@ -0,0 +1,62 @@
+package thecount.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class CommandRegistryTest {
+    private final Command bye = (userInput, tasks) -> "bye";
+    private final Command deadline = (userInput, tasks) -> "deadline";
+    private final Command delete = (userInput, tasks) -> "delete";
+    private final Command due = (userInput, tasks) -> "due";
+
+    private CommandRegistry createRegistry() {
+        CommandRegistry commands = new CommandRegistry();
+        commands.register("deadline", deadline, "dl");
+        commands.registerExact("delete", delete, "rm");
+        commands.registerExact("bye", bye, "exit");
+        commands.register("due", due);
+        return commands;
+    }
+
+    @Test
+    public void testFindByNameAndAlias() {
+        CommandRegistry commands = createRegistry();
+        assertEquals(deadline, commands.find(new CommandLine("deadline read /by 2026-11-01")));
+        assertEquals(deadline, commands.find(new CommandLine("DL read /by 2026-11-01")));
+        assertEquals(delete, commands.find(new CommandLine("  rm 3")));
+        assertEquals(delete, commands.find(new CommandLine("Delete 3")));
+        assertEquals(bye, commands.find(new CommandLine("exit")));
+        assertEquals(due, commands.find(new CommandLine("due before 2026-11-01")));
+    }
+
+    @Test
+    public void testFindByPrefixAndAbbreviation() {
+        CommandRegistry commands = createRegistry();
+        assertEquals(deadline, commands.find(new CommandLine("dea read")));
+        assertEquals(deadline, commands.find(new CommandLine("ddln read")));
+        assertEquals(due, commands.find(new CommandLine("du before 2026-11-01")));
+    }
+
+    @Test
+    public void testAmbiguousOrUnknownWordsMatchNothing() {
+        CommandRegistry commands = createRegistry();
+        assertNull(commands.find(new CommandLine("d 3")));
+        assertNull(commands.find(new CommandLine("de 3")));
+        assertNull(commands.find(new CommandLine("dle 3")));
+        assertNull(commands.find(new CommandLine("deadlines")));
+        assertNull(commands.find(new CommandLine("r 3")));
+        assertNull(commands.find(new CommandLine("")));
+    }
+
+    @Test
+    public void testExactCommandsNeedTheirWholeName() {
+        CommandRegistry commands = createRegistry();
+        assertNull(commands.find(new CommandLine("by")));
+        assertNull(commands.find(new CommandLine("be")));
+        assertNull(commands.find(new CommandLine("del 3")));
+        assertNull(commands.find(new CommandLine("dlete all")));
+        assertNull(commands.find(new CommandLine("dlt 3")));
+    }
+}
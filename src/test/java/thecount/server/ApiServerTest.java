@@ -0,0 +1,131 @@
+package thecount.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import thecount.storage.StorageConfig;
+
+public class ApiServerTest {
+    @TempDir
+    Path directory;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<String> get(ApiServer server, String path) throws Exception {
+        return getAsync(server, path).get();
+    }
+
+    private CompletableFuture<HttpResponse<String>> getAsync(ApiServer server, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .header(ApiServer.TOKEN_HEADER, server.getToken())
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private CompletableFuture<HttpResponse<String>> post(ApiServer server, String command) {
+        return send(commandRequest(server, command).header(ApiServer.TOKEN_HEADER, server.getToken()));
+    }
+
+    private static HttpRequest.Builder commandRequest(ApiServer server, String command) {
+        String body = Json.appendString(new StringBuilder("{\"command\":"), command).append('}').toString();
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/command"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest.Builder request) {
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static ApiServer startServer(Path directory) throws IOException {
+        ApiServer server = new ApiServer(new StorageConfig().withDirectory(directory.toString()), 0);
+        server.start();
+        return server;
+    }
+
+    @Test
+    public void testCommandsAndQueries() throws Exception {
+        ApiServer server = startServer(this.directory);
+        try {
+            assertEquals(200, post(server, "todo read \"book\"").get().statusCode());
+            post(server, "deadline return book /by 2026-11-01").get();
+            post(server, "mark 1").get();
+
+            String tasks = get(server, "/tasks").body();
+            assertTrue(tasks.startsWith("{\"total\":2,\"tasks\":[{\"id\":1,\"type\":\"T\",\"done\":true,"
+                    + "\"description\":\"read \\\"book\\\"\",\"tags\":[]}"), tasks);
+            assertEquals("{\"tasks\":[{\"id\":2,\"type\":\"D\",\"done\":false,\"description\":\"return book\","
+                    + "\"tags\":[],\"by\":\"2026-11-01\"}]}", get(server, "/due?from=2026-11-01&to=2026-11-01").body());
+            assertEquals(2, get(server, "/find?q=book").body().split("\"id\"").length - 1);
+            assertEquals(400, get(server, "/due?before=soon").statusCode());
+            assertEquals(405, get(server, "/command").statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testRequestsFromPagesOrWithoutTokenRefused() throws Exception {
+        ApiServer server = startServer(this.directory);
+        try {
+            HttpRequest.Builder withoutToken = commandRequest(server, "delete all");
+            assertEquals(401, send(withoutToken).get().statusCode());
+            HttpRequest.Builder wrongToken = commandRequest(server, "delete all").header(ApiServer.TOKEN_HEADER, "0");
+            assertEquals(401, send(wrongToken).get().statusCode());
+            HttpRequest.Builder fromPage = commandRequest(server, "delete all")
+                    .header(ApiServer.TOKEN_HEADER, server.getToken()).header("Origin", "http://example.com");
+            assertEquals(403, send(fromPage).get().statusCode());
+            HttpRequest.Builder asForm = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + server.getPort() + "/command"))
+                    .header(ApiServer.TOKEN_HEADER, server.getToken()).header("Content-Type", "text/plain")
+                    .POST(HttpRequest.BodyPublishers.ofString("todo sneaky"));
+            assertEquals(415, send(asForm).get().statusCode());
+            assertEquals(400, post(server, "todo a\ntodo b").get().statusCode());
+
+            Path exported = this.directory.resolve("stolen.txt");
+            assertEquals(403, post(server, "export " + exported).get().statusCode());
+            assertFalse(Files.exists(exported));
+
+            HttpRequest.Builder fromLocalPage = commandRequest(server, "todo read book")
+                    .header(ApiServer.TOKEN_HEADER, server.getToken()).header("Origin", "http://localhost:3000");
+            assertEquals(200, send(fromLocalPage).get().statusCode());
+            assertTrue(get(server, "/tasks").body().startsWith("{\"total\":1,"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testConcurrentClients() throws Exception {
+        ApiServer server = startServer(this.directory);
+        try {
+            List<CompletableFuture<HttpResponse<String>>> replies = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                replies.add(post(server, "todo task " + i));
+                replies.add(getAsync(server, "/find?q=task"));
+            }
+            for (CompletableFuture<HttpResponse<String>> reply : replies) {
+                assertEquals(200, reply.get().statusCode());
+            }
+            assertTrue(get(server, "/tasks?page=2&size=150").body().startsWith("{\"total\":200,"));
+            assertEquals(50, get(server, "/tasks?page=2&size=150").body().split("\"id\"").length - 1);
+        } finally {
+            server.stop();
+        }
+    }
+}
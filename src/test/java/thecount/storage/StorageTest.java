@@ -0,0 +1,319 @@
+package thecount.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import thecount.task.Deadline;
+import thecount.task.Event;
+import thecount.task.Recurrence;
+import thecount.task.Recurring;
+import thecount.task.Task;
+import thecount.task.TaskList;
+import thecount.task.ToDo;
+
+public class StorageTest {
+    @TempDir
+    Path directory;
+
+    private StorageConfig config() {
+        return new StorageConfig().withDirectory(this.directory.toString());
+    }
+
+    private static void add(TaskList tasks, Storage storage, Task task) {
+        synchronized (tasks) {
+            tasks.add(task);
+            storage.logAdd(task);
+        }
+    }
+
+    private List<Task> reload(StorageConfig config) {
+        TaskList tasks = new TaskList();
+        new Storage(tasks, config).close();
+        return tasks.getTasks();
+    }
+
+    private StorageConfig journaled() {
+        return config().withJournal(true, 64 * 1024);
+    }
+
+    @Test
+    public void testJournalReplaysChangesAndSkipsTornRecord() throws Exception {
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, journaled());
+        add(tasks, storage, new ToDo("read book"));
+        add(tasks, storage, new ToDo("return book"));
+        synchronized (tasks) {
+            tasks.markTask(2, false);
+            storage.logMark(2);
+        }
+        storage.close();
+        // A crash mid-append leaves the last record without its line end
+        Files.writeString(this.directory.resolve("the-count.journal"), "4 | A | 3 | T | 0 | wri",
+                StandardOpenOption.APPEND);
+
+        List<Task> loaded = reload(journaled());
+        assertEquals(2, loaded.size());
+        assertEquals("return book", loaded.get(1).getDescription());
+        assertTrue(loaded.get(1).isDone());
+        assertEquals("", Files.readString(this.directory.resolve("the-count.txt")));
+    }
+
+    @Test
+    public void testAppendAfterTornRecordIsReplayed() throws Exception {
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, journaled());
+        add(tasks, storage, new ToDo("read book"));
+        storage.close();
+        Files.writeString(this.directory.resolve("the-count.journal"), "2", StandardOpenOption.APPEND);
+
+        TaskList reloaded = new TaskList();
+        storage = new Storage(reloaded, journaled());
+        add(reloaded, storage, new ToDo("return book"));
+        storage.close();
+
+        List<Task> loaded = reload(journaled());
+        assertEquals(2, loaded.size());
+        assertEquals("return book", loaded.get(1).getDescription());
+    }
+
+    @Test
+    public void testRotatedJournalIsReplayedAndFolded() throws Exception {
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, journaled());
+        add(tasks, storage, new ToDo("read book"));
+        storage.close();
+        // A crash mid-compaction leaves the journal moved aside, with no snapshot covering it
+        Files.move(this.directory.resolve("the-count.journal"), this.directory.resolve("the-count.journal.old"));
+
+        List<Task> loaded = reload(journaled());
+        assertEquals("read book", loaded.get(0).getDescription());
+        assertFalse(Files.exists(this.directory.resolve("the-count.journal.old")));
+        assertEquals(1, reload(config()).size());
+    }
+
+    @Test
+    public void testCompactionWritesSnapshotCoveringJournal() throws Exception {
+        StorageConfig config = config().withJournal(true, 1);
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, config);
+        add(tasks, storage, new ToDo("read book"));
+        storage.flush();
+        add(tasks, storage, new ToDo("return book"));
+        storage.close();
+
+        List<String> lines = Files.readAllLines(this.directory.resolve("the-count.txt"));
+        assertEquals(List.of("#v3", "#2", "1 | T | 0 | read book | ", "2 | T | 0 | return book | "), lines);
+        assertEquals(2, reload(config).size());
+    }
+
+    private StorageConfig binary() {
+        return config().withFormat(StorageFormat.BINARY);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws Exception {
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, binary());
+        Task todo = new ToDo("read book");
+        todo.tag("leisure");
+        add(tasks, storage, todo);
+        add(tasks, storage, new Deadline("return book", LocalDate.of(2026, 11, 1)));
+        add(tasks, storage, new Event("sync", "2026-10-19 1pm", "2pm"));
+        add(tasks, storage, new Recurring("gym", Recurrence.parse("week mon"), LocalDate.of(2026, 10, 19), null));
+        synchronized (tasks) {
+            tasks.markTask(1, false);
+            tasks.markOccurrence(4, LocalDate.of(2026, 10, 26), true);
+            storage.logMark(1);
+            storage.logOccurrence(4, LocalDate.of(2026, 10, 26), true);
+        }
+        storage.close();
+
+        assertTrue(BinaryFormat.isBinary(this.directory.resolve("the-count.bin")));
+        List<Task> loaded = reload(binary());
+        assertEquals(tasks.getTasks().size(), loaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            Task expected = tasks.getTasks().get(i);
+            assertEquals(expected.getId(), loaded.get(i).getId());
+            assertEquals(expected.getType(), loaded.get(i).getType());
+            assertEquals(expected.getDesc(), loaded.get(i).getDesc());
+            assertEquals(expected.getTags(), loaded.get(i).getTags());
+            assertEquals(expected.isDone(), loaded.get(i).isDone());
+        }
+    }
+
+    @Test
+    public void testVersionOneBinaryIsReadAndRewrittenAsCurrentVersion() throws Exception {
+        // Version 1: no offset table, ids, tags field or recurring tasks
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer.put(new byte[] {'T', 'C', 'N', 'T'}).putShort((short) 1).putLong(0).putInt(2);
+        buffer.put((byte) 'T').put((byte) 1);
+        putString(buffer, "read book #leisure");
+        buffer.put((byte) 'D').put((byte) 0);
+        putString(buffer, "return book");
+        buffer.putInt((int) LocalDate.of(2026, 11, 1).toEpochDay());
+        Files.write(this.directory.resolve("the-count.bin"), Arrays.copyOf(buffer.array(), buffer.position()));
+
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, binary());
+        assertEquals("read book", tasks.getTasks().get(0).getDescription());
+        assertEquals(Set.of("leisure"), tasks.getTasks().get(0).getTags());
+        assertTrue(tasks.getTasks().get(0).isDone());
+        assertEquals(2, tasks.getTasks().get(1).getId());
+        add(tasks, storage, new ToDo("write notes"));
+        storage.close();
+
+        ByteBuffer written = ByteBuffer.wrap(Files.readAllBytes(this.directory.resolve("the-count.bin")));
+        assertEquals(5, written.getShort(4));
+        List<Task> loaded = reload(binary());
+        assertEquals(List.of(1L, 2L, 3L), List.of(loaded.get(0).getId(), loaded.get(1).getId(),
+                loaded.get(2).getId()));
+        assertEquals("return book | 2026-11-01", loaded.get(1).getDesc());
+    }
+
+    @Test
+    public void testTextFileMigratedToBinary() throws Exception {
+        Files.writeString(this.directory.resolve("the-count.txt"),
+                "1 | T | 0 | CS2102 Assignment #work\n2 | E | 1 | Raffles Hall Supper | Aug 6th-8th\n",
+                StandardCharsets.UTF_8);
+
+        List<Task> loaded = reload(binary());
+        assertEquals(2, loaded.size());
+        assertTrue(BinaryFormat.isBinary(this.directory.resolve("the-count.bin")));
+        assertFalse(Files.exists(this.directory.resolve("the-count.txt")));
+        assertTrue(Files.exists(this.directory.resolve("the-count.txt.migrated")));
+
+        List<Task> reloaded = reload(binary());
+        assertEquals(Set.of("work"), reloaded.get(0).getTags());
+        assertEquals("Raffles Hall Supper | Aug 6th | 8th", reloaded.get(1).getDesc());
+        assertTrue(reloaded.get(1).isDone());
+    }
+
+    @Test
+    public void testLazyDecodingReadsTasksThroughOffsetTable() throws Exception {
+        TaskList source = new TaskList();
+        source.add(new ToDo("read book"));
+        source.add(new ToDo("return book"));
+        source.add(new ToDo("write notes"));
+        Path path = this.directory.resolve("tasks.bin");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // A buffer smaller than the file, so it is written a piece at a time
+            BinaryFormat.encode(source.getTasks(), 0, channel, ByteBuffer.allocateDirect(32));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        // Spoil the first task, which a task found through the offset table never reads
+        buffer.put(22, (byte) 'Z');
+
+        TaskList tasks = new TaskList();
+        BinaryFormat.decodeLazily(buffer, tasks);
+        assertEquals(3, tasks.length());
+        assertEquals("write notes", tasks.getTasksAt(new int[] {3}).get(0).getDescription());
+        assertEquals(3, tasks.getTasksAt(new int[] {3}).get(0).getId());
+        assertThrows(UncheckedIOException.class, () -> tasks.getTasksAt(new int[] {1}));
+    }
+
+    @Test
+    public void testLazyLoadingJournalsChanges() throws Exception {
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, binary());
+        add(tasks, storage, new ToDo("read book"));
+        storage.close();
+        Path dataPath = this.directory.resolve("the-count.bin");
+        byte[] snapshot = Files.readAllBytes(dataPath);
+
+        StorageConfig config = binary().withLazyLoading(true);
+        TaskList mapped = new TaskList();
+        storage = new Storage(mapped, config);
+        add(mapped, storage, new ToDo("return book"));
+        storage.close();
+
+        assertTrue(Arrays.equals(snapshot, Files.readAllBytes(dataPath)));
+        List<Task> loaded = reload(config);
+        assertEquals("read book", loaded.get(0).getDescription());
+        assertEquals("return book", loaded.get(1).getDescription());
+    }
+
+    @Test
+    public void testTagsRoundTrip() {
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, config());
+        add(tasks, storage, new ToDo("fix bug #42"));
+        Task tagged = new ToDo("read book");
+        tagged.tag("leisure");
+        add(tasks, storage, tagged);
+        storage.close();
+
+        List<Task> loaded = reload(config());
+        assertEquals("fix bug #42", loaded.get(0).getDescription());
+        assertEquals(Set.of(), loaded.get(0).getTags());
+        assertEquals("read book", loaded.get(1).getDescription());
+        assertEquals(Set.of("leisure"), loaded.get(1).getTags());
+    }
+
+    @Test
+    public void testSeparatorInFieldsRoundTrips() throws Exception {
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, config());
+        add(tasks, storage, new ToDo("a | b \\ c"));
+        add(tasks, storage, new Event("sync", "2026-10-19 1pm", "2pm | maybe"));
+        storage.close();
+
+        List<Task> loaded = reload(config());
+        assertEquals("a | b \\ c", loaded.get(0).getDescription());
+        assertEquals(Set.of(), loaded.get(0).getTags());
+        assertEquals("sync | 2026-10-19 1pm | 2pm | maybe", loaded.get(1).getDesc());
+    }
+
+    @Test
+    public void testUndoPutsBackDescriptionWithSeparator() throws Exception {
+        TaskList tasks = new TaskList();
+        Storage storage = new Storage(tasks, config());
+        add(tasks, storage, new ToDo("a | b"));
+        synchronized (tasks) {
+            storage.beginChange("delete");
+            storage.rememberForUndo(tasks.getTasks());
+            tasks.deleteTask(1);
+            storage.logDelete(1);
+            storage.endChange();
+            assertEquals("delete", storage.undo());
+        }
+        assertEquals("a | b", tasks.getTasks().get(0).getDescription());
+        storage.close();
+
+        assertEquals("a | b", reload(config()).get(0).getDescription());
+    }
+
+    @Test
+    public void testTagsMovedOutOfVersionOneDescriptions() throws Exception {
+        Files.writeString(this.directory.resolve("the-count.txt"),
+                "1 | T | 0 | CS2102 Assignment #work\n2 | D | 1 | CS1101 Assignment | 2024-01-01\n",
+                StandardCharsets.UTF_8);
+
+        List<Task> loaded = reload(config());
+        assertEquals("CS2102 Assignment", loaded.get(0).getDescription());
+        assertEquals(Set.of("work"), loaded.get(0).getTags());
+        assertEquals(2, loaded.get(1).getId());
+        assertEquals(true, loaded.get(1).isDone());
+    }
+}
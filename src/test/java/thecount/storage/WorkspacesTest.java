@@ -0,0 +1,73 @@
+package thecount.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import thecount.exception.TheCountException;
+import thecount.task.Task;
+import thecount.task.ToDo;
+
+public class WorkspacesTest {
+    @TempDir
+    Path directory;
+
+    private static void addTodo(Workspaces workspaces, String description) {
+        Workspaces.Workspace workspace = workspaces.getCurrent();
+        Task todo = new ToDo(description);
+        synchronized (workspace.getTasks()) {
+            workspace.getTasks().add(todo);
+            workspace.getStorage().logAdd(todo);
+        }
+    }
+
+    @Test
+    public void testListsLoadOnDemandAndEvictLeastRecentlyUsed() throws Exception {
+        // Room for about two tasks, so a list not in use is unloaded once the lists hold more
+        Workspaces workspaces = new Workspaces(new StorageConfig().withDirectory(this.directory.toString())
+                .withListBudget(1024));
+        try {
+            addTodo(workspaces, "read book");
+            workspaces.select("team");
+            addTodo(workspaces, "book room");
+            addTodo(workspaces, "plan sprint");
+            addTodo(workspaces, "write notes");
+
+            assertEquals(Map.of("team", 3, "the-count", 1), workspaces.countLoadedTasks());
+
+            workspaces.select("the-count");
+            assertEquals(Map.of("the-count", 1), workspaces.countLoadedTasks());
+            assertEquals(List.of("team", "the-count"), workspaces.getNames());
+
+            workspaces.select("team");
+            assertEquals(3, workspaces.getCurrent().getTasks().length());
+            assertThrows(TheCountException.class, () -> workspaces.select("../team"));
+        } finally {
+            workspaces.close();
+        }
+    }
+
+    @Test
+    public void testSearchAcrossLists() throws Exception {
+        Workspaces workspaces = new Workspaces(new StorageConfig().withDirectory(this.directory.toString()));
+        try {
+            addTodo(workspaces, "read book");
+            workspaces.select("archive");
+            addTodo(workspaces, "old report");
+            workspaces.select("team");
+            addTodo(workspaces, "book room");
+
+            Map<String, List<Task>> found = workspaces.search("book");
+            assertEquals(List.of("team", "the-count"), List.copyOf(found.keySet()));
+            assertEquals("book room", found.get("team").get(0).getDescription());
+        } finally {
+            workspaces.close();
+        }
+    }
+}
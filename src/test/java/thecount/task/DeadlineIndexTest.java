@@ -0,0 +1,46 @@
+package thecount.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class DeadlineIndexTest {
+
+    @Test
+    public void testDeadlinesDueInRange() {
+        TaskList tasks = new TaskList();
+        Deadline later = new Deadline("later", LocalDate.of(2026, 11, 30));
+        Deadline sooner = new Deadline("sooner", LocalDate.of(2026, 11, 1));
+        Deadline sameDay = new Deadline("same day", LocalDate.of(2026, 11, 1));
+        tasks.add(later);
+        tasks.add(new ToDo("not a deadline"));
+        tasks.add(sooner);
+        tasks.add(sameDay);
+
+        assertEquals(List.of(sooner, sameDay, later), tasks.getDeadlinesDue(null, null));
+        assertEquals(List.of(sooner, sameDay), tasks.getDeadlinesDue(null, LocalDate.of(2026, 11, 30)));
+        assertEquals(List.of(later), tasks.getDeadlinesDue(LocalDate.of(2026, 11, 2), null));
+        assertEquals(List.of(), tasks.getDeadlinesDue(LocalDate.of(2026, 12, 1), LocalDate.of(2026, 11, 1)));
+    }
+
+    @Test
+    public void testDeadlinesStayConsistent() throws Exception {
+        TaskList tasks = new TaskList();
+        Deadline first = new Deadline("first", LocalDate.of(2026, 11, 1));
+        Deadline second = new Deadline("second", LocalDate.of(2026, 11, 2));
+        tasks.add(first);
+        tasks.add(second);
+        assertEquals(List.of(first, second), tasks.getDeadlinesDue(null, null));
+
+        tasks.markTask(1, false);
+        assertEquals(List.of(second), tasks.getDeadlinesDue(null, null));
+
+        tasks.unmarkTask(1, false);
+        tasks.deleteTask(2);
+        // Changing a task replaces it with a changed copy
+        assertEquals(List.of(tasks.getTasks().get(0)), tasks.getDeadlinesDue(null, null));
+    }
+}
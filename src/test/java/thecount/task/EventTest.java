@@ -0,0 +1,46 @@
+package thecount.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class EventTest {
+
+    @Test
+    public void testTimesReadAsRange() {
+        Event meeting = new Event("meeting", "2026-10-20 1400", "4:30pm");
+        assertEquals(LocalDateTime.of(2026, 10, 20, 14, 0), meeting.getStart());
+        assertEquals(LocalDateTime.of(2026, 10, 20, 16, 30), meeting.getEnd());
+
+        Event trip = new Event("trip", "2026-10-20", "2026-10-22");
+        assertEquals(LocalDateTime.of(2026, 10, 23, 0, 0), trip.getEnd());
+
+        Event lunch = new Event("lunch", "2026-10-20 12PM", "13:15");
+        assertEquals(LocalDateTime.of(2026, 10, 20, 12, 0), lunch.getStart());
+        assertEquals(LocalDateTime.of(2026, 10, 20, 13, 15), lunch.getEnd());
+    }
+
+    @Test
+    public void testUnreadableTimesLeftUnscheduled() {
+        assertFalse(new Event("supper", "Aug 6th", "8th").isScheduled());
+        assertFalse(new Event("supper", "2026-02-30", "2026-03-01").isScheduled());
+        assertFalse(new Event("supper", "2026-10-20 13pm", "2pm").isScheduled());
+        assertFalse(new Event("supper", "2026-10-20 4pm", "2pm").isScheduled());
+    }
+
+    @Test
+    public void testEventWithAmPmTimeFoundByInterval() {
+        TaskList tasks = new TaskList();
+        Event sync = new Event("sync", "2026-10-19 1pm", "2pm");
+        tasks.add(sync);
+
+        assertEquals(List.of(sync), tasks.getEventsDuring(LocalDateTime.of(2026, 10, 19, 13, 30),
+                LocalDateTime.of(2026, 10, 19, 15, 0)));
+        assertEquals(List.of(), tasks.getEventsDuring(LocalDateTime.of(2026, 10, 19, 14, 0),
+                LocalDateTime.of(2026, 10, 19, 15, 0)));
+    }
+}
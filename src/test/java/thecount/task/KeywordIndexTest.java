@@ -0,0 +1,60 @@
+package thecount.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class KeywordIndexTest {
+
+    private static ToDo createTask(String description, long id) {
+        ToDo todo = new ToDo(description);
+        todo.setId(id);
+        return todo;
+    }
+
+    @Test
+    public void testFindByPrefix() {
+        KeywordIndex index = new KeywordIndex();
+        ToDo book = createTask("Return Book", 0);
+        ToDo shelf = createTask("buy bookshelf", 1);
+        index.add(book);
+        index.add(shelf);
+
+        assertEquals(List.of(book, shelf), index.find("BOOK"));
+        assertEquals(List.of(shelf), index.find("buy book"));
+        assertEquals(List.of(), index.find("ook"));
+    }
+
+    @Test
+    public void testRemove() {
+        KeywordIndex index = new KeywordIndex();
+        ToDo book = createTask("return book", 0);
+        index.add(book);
+        index.remove(book);
+
+        assertEquals(List.of(), index.find("book"));
+    }
+
+    @Test
+    public void testResultsInListOrder() {
+        KeywordIndex index = new KeywordIndex();
+        ToDo first = createTask("first", 0);
+        ToDo second = createTask("second #work", 1);
+        index.add(second);
+        index.remove(first);
+        first.tag("work");
+        index.add(first);
+
+        assertEquals(List.of(first, second), index.find("work"));
+    }
+
+    @Test
+    public void testQueryWithoutWords() {
+        KeywordIndex index = new KeywordIndex();
+
+        assertNull(index.find("#!"));
+    }
+}
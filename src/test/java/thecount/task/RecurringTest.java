@@ -0,0 +1,67 @@
+package thecount.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import thecount.exception.TheCountException;
+
+public class RecurringTest {
+
+    private static List<LocalDate> collect(Iterator<LocalDate> dates) {
+        List<LocalDate> collected = new ArrayList<>();
+        dates.forEachRemaining(collected::add);
+        return collected;
+    }
+
+    @Test
+    public void testWeeklyOccurrencesInWindow() throws Exception {
+        // Oct 19 2026 is a Monday
+        Recurring standup = new Recurring("standup", Recurrence.parse("week mon,wed"),
+                LocalDate.of(2026, 10, 19), null);
+
+        assertEquals(List.of(LocalDate.of(2026, 10, 19), LocalDate.of(2026, 10, 21), LocalDate.of(2026, 10, 26)),
+                collect(standup.occurrences(null, LocalDate.of(2026, 10, 27))));
+        assertEquals(List.of(LocalDate.of(2100, 1, 4), LocalDate.of(2100, 1, 6)),
+                collect(standup.occurrences(LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 8))));
+    }
+
+    @Test
+    public void testMonthlySkipsShortMonthsAndStopsAtEnd() throws Exception {
+        Recurring rent = new Recurring("rent", Recurrence.parse("monthly"),
+                LocalDate.of(2026, 1, 31), LocalDate.of(2026, 5, 31));
+
+        assertEquals(List.of(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 3, 31), LocalDate.of(2026, 5, 31)),
+                collect(rent.occurrences(null, null)));
+    }
+
+    @Test
+    public void testRuleRoundTrips() throws Exception {
+        assertEquals("week mon,fri", Recurrence.parse("weekly on Friday, Mon").toString());
+        assertEquals("day", Recurrence.parse("daily").toString());
+        assertThrows(TheCountException.class, () -> Recurrence.parse("yearly"));
+        assertThrows(TheCountException.class, () -> Recurrence.parse("month mon"));
+    }
+
+    @Test
+    public void testMarkingOneOccurrence() throws Exception {
+        TaskList tasks = new TaskList();
+        tasks.add(new Recurring("gym", Recurrence.parse("day"), LocalDate.of(2026, 10, 19), null));
+        tasks.add(new Deadline("report", LocalDate.of(2026, 10, 20)));
+
+        tasks.markOccurrence(1, LocalDate.of(2026, 10, 20), true);
+        List<Task> due = tasks.getDue(LocalDate.of(2026, 10, 19), LocalDate.of(2026, 10, 22));
+
+        assertEquals(3, due.size());
+        assertEquals(LocalDate.of(2026, 10, 19), ((Recurring.Occurrence) due.get(0)).getDate());
+        assertEquals("report", due.get(1).getDescription());
+        assertEquals(LocalDate.of(2026, 10, 21), ((Recurring.Occurrence) due.get(2)).getDate());
+        assertThrows(TheCountException.class, () -> tasks.markOccurrence(2, LocalDate.of(2026, 10, 20), true));
+    }
+}
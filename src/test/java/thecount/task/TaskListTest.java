@@ -0,0 +1,140 @@
+package thecount.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import thecount.exception.TheCountException;
+
+public class TaskListTest {
+
+    private static TaskList createList(int count) {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= count; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void testIdsSurviveDeletes() throws Exception {
+        TaskList tasks = createList(5);
+        tasks.deleteTask(2);
+
+        assertEquals(4, tasks.length());
+        assertEquals(3, tasks.getIdAt(2));
+        assertEquals(4, tasks.positionOf(5));
+        assertThrows(TheCountException.class, () -> tasks.positionOf(2));
+    }
+
+    @Test
+    public void testPositionsSkipDeletedTasks() throws Exception {
+        TaskList tasks = createList(6);
+        tasks.deleteTask(1);
+        tasks.deleteTask(3);
+        tasks.add(new ToDo("task 7"));
+        tasks.markTask(4, false);
+
+        assertEquals(7, tasks.getIdAt(5));
+        assertEquals(6, tasks.getIdAt(4));
+        assertEquals(List.of(2L, 3L, 5L, 6L, 7L),
+                tasks.getTasks().stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testPositionsHoldWhileTombstonesAreSweptOut() throws Exception {
+        TaskList tasks = createList(8);
+        tasks.deleteTasks(new int[] {1, 2, 4, 6, 7});
+        tasks.deleteTask(2);
+        tasks.add(new ToDo("task 9"));
+
+        assertEquals(List.of(3L, 8L, 9L),
+                tasks.getTasks().stream().map(Task::getId).collect(Collectors.toList()));
+        assertEquals(2, tasks.positionOf(8));
+        assertEquals(9, tasks.getIdAt(3));
+    }
+
+    @Test
+    public void testNewTasksGetFreshIds() throws Exception {
+        TaskList tasks = createList(3);
+        tasks.deleteTask(3);
+        Task task = new ToDo("task 4");
+        tasks.add(task);
+
+        assertEquals(4, task.getId());
+    }
+
+    @Test
+    public void testPutTasksBackInPlace() throws Exception {
+        TaskList tasks = createList(6);
+        List<Task> deleted = tasks.getTasksAt(new int[] {2, 5});
+        Task tombstoned = tasks.getTasksAt(new int[] {3}).get(0);
+        tasks.deleteTasks(new int[] {2, 5});
+        tasks.deleteTask(2);
+        tasks.putTasks(List.of(tombstoned));
+        tasks.putTasks(deleted);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L),
+                tasks.getTasks().stream().map(Task::getId).collect(Collectors.toList()));
+        assertEquals(3, tasks.positionOf(3));
+        assertEquals(7, nextAddedId(tasks));
+    }
+
+    @Test
+    public void testPutTaskReplacesTaskWithSameId() throws Exception {
+        TaskList tasks = createList(3);
+        Task done = new ToDo("task 2");
+        done.setId(2);
+        done.markAsDone();
+        done.tag("work");
+        tasks.putTasks(List.of(done));
+
+        assertEquals(3, tasks.length());
+        assertEquals(List.of(done), tasks.getTaggedTasks("work"));
+        assertEquals(done, tasks.getTasksAt(new int[] {2}).get(0));
+    }
+
+    @Test
+    public void testSnapshotKeepsTasksAsTheyWere() throws Exception {
+        TaskList tasks = createList(3);
+        List<Task> snapshot = tasks.getTasks();
+        tasks.markTask(1, false);
+        tasks.tagTask(2, "work");
+        tasks.deleteTask(3);
+
+        assertEquals("[T][ ] task 1", snapshot.get(0).toString());
+        assertEquals("[T][ ] task 2", snapshot.get(1).toString());
+        assertEquals(3, snapshot.size());
+        assertEquals("[T][X] task 1", tasks.getTasks().get(0).toString());
+        assertEquals("[T][ ] task 2 #work", tasks.getTasks().get(1).toString());
+        assertEquals(2, tasks.getTasks().size());
+    }
+
+    @Test
+    public void testSnapshotsAcrossChunksFollowChanges() throws Exception {
+        TaskList tasks = createList(600);
+        List<Task> snapshot = tasks.getTasks();
+        tasks.markTask(300, false);
+        tasks.deleteTasks(new int[] {2, 599});
+        tasks.add(new ToDo("task 601"));
+        List<Task> changed = tasks.getTasks();
+
+        assertEquals(600, snapshot.size());
+        assertEquals(List.of(1L, 3L), List.of(changed.get(0).getId(), changed.get(1).getId()));
+        assertEquals("[T][X] task 300", changed.get(298).toString());
+        assertEquals(List.of(598L, 600L, 601L), changed.subList(596, 599).stream().map(Task::getId)
+                .collect(Collectors.toList()));
+        assertEquals(599, changed.stream().count());
+        assertEquals("[T][ ] task 300", snapshot.get(299).toString());
+    }
+
+    private static long nextAddedId(TaskList tasks) {
+        Task task = new ToDo("next");
+        tasks.add(task);
+        return task.getId();
+    }
+}
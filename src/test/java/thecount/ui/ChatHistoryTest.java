@@ -0,0 +1,25 @@
+package thecount.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ChatHistoryTest {
+
+    @Test
+    public void testOldMessagesAreSpilledAndReadBack() {
+        ChatHistory history = new ChatHistory(10);
+        for (int i = 0; i < 500; i++) {
+            history.add(new ChatHistory.Entry("message " + i + "\nwith \u00fcn\u00efcode", i % 2 == 0));
+        }
+
+        assertEquals(500, history.size());
+        assertTrue(history.getRetainedCount() < 10 + 64, "Only recent messages stay in memory");
+        assertEquals("message 0\nwith \u00fcn\u00efcode", history.get(0).getText());
+        assertTrue(history.get(0).isFromUser());
+        assertEquals("message 257\nwith \u00fcn\u00efcode", history.get(257).getText());
+        assertEquals(false, history.get(257).isFromUser());
+        assertEquals("message 499\nwith \u00fcn\u00efcode", history.get(499).getText());
+    }
+}
@@ -3,19 +3,21 @@
 REM create bin directory if it doesn't exist
 if not exist ..\bin mkdir ..\bin
 
-REM delete output from previous run
+REM delete output and data from previous run
 if exist ACTUAL.TXT del ACTUAL.TXT
+if exist data rmdir /s /q data
 
 REM compile the code into the bin folder
-javac  -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\*.java
+REM only the text UI is compiled, so no JavaFX is needed
+javac  -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\thecount\TheCount.java
 IF ERRORLEVEL 1 (
     echo ********** BUILD FAILURE **********
     exit /b 1
 )
 REM no error here, errorlevel == 0
 
-REM run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ..\bin thecount.TheCount < input.txt > ACTUAL.TXT
+REM run the program without a display, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
+java -classpath ..\bin thecount.TheCount --batch < input.txt > ACTUAL.TXT
 
 REM compare the output to the expected output
 FC ACTUAL.TXT EXPECTED.TXT
@@ -6,21 +6,23 @@ then
     mkdir ../bin
 fi
 
-# delete output from previous run
+# delete output and data from previous run
 if [ -e "./ACTUAL.TXT" ]
 then
     rm ACTUAL.TXT
 fi
+rm -rf ./data
 
 # compile the code into the bin folder, terminates if error occurred
-if ! javac -cp ../src/main/java -Xlint:none -d ../bin ../src/main/java/thecount/*.java
+# only the text UI is compiled, so no JavaFX is needed
+if ! javac -cp ../src/main/java -Xlint:none -d ../bin ../src/main/java/thecount/TheCount.java
 then
     echo "********** BUILD FAILURE **********"
     exit 1
 fi
 
-# run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath bin thecount.TheCount < input.txt > ACTUAL.TXT
+# run the program without a display, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
+java -classpath ../bin thecount.TheCount --batch < input.txt > ACTUAL.TXT
 
 # convert to UNIX format
 cp EXPECTED.TXT EXPECTED-UNIX.TXT